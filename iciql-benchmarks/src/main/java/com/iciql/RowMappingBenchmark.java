@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.benchmarks.DatabaseState;
+import com.iciql.test.models.Product;
+import com.iciql.util.JdbcUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the mapping of one ResultSet row to a model object without the
+ * cost of executing the query. This benchmark lives in the com.iciql package
+ * because TableDefinition is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMappingBenchmark {
+
+    // drivers with scrollable result sets
+    @Param({"h2", "hsqldb", "derby"})
+    public String database;
+
+    private Db db;
+    private TableDefinition<Product> def;
+    private Statement stat;
+    private ResultSet rs;
+    private int[] columns;
+    private int rows;
+    private int row;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        db = Db.open(DatabaseState.getUrl(database), "sa", "");
+        db.dropTable(Product.class);
+        db.insertAll(Product.getList());
+        def = db.define(Product.class);
+        rows = (int) db.from(new Product()).selectCount();
+        stat = db.getConnection().createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
+                ResultSet.CONCUR_READ_ONLY);
+        rs = stat.executeQuery("SELECT * FROM " + def.tableName);
+        columns = def.mapColumns(db.getDialect(), true, rs);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        JdbcUtils.closeSilently(rs);
+        JdbcUtils.closeSilently(stat);
+        db.dropTable(Product.class);
+        db.close();
+    }
+
+    @Benchmark
+    public Product readRow() throws SQLException {
+        rs.absolute(row++ % rows + 1);
+        Product p = new Product();
+        def.readRow(db.getDialect(), p, rs, columns);
+        return p;
+    }
+}
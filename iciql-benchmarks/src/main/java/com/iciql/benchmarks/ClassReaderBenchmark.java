@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.Filter;
+import com.iciql.Token;
+import com.iciql.bytecode.ClassReader;
+import com.iciql.test.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the decompilation of Filter classes and queries with filters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassReaderBenchmark {
+
+    private int minStock = 10;
+    private String category = "Condiments";
+
+    @Benchmark
+    public Token decompile() {
+        final int min = minStock;
+        Filter filter = new Filter() {
+            @Override
+            public boolean where() {
+                return min > 5;
+            }
+        };
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("val$min", min);
+        return new ClassReader().decompile(filter, fields, "where");
+    }
+
+    @Benchmark
+    public List<Product> selectWithFilter(DatabaseState state) {
+        final Product p = new Product();
+        final String c = category;
+        final int min = minStock;
+        return state.db.from(p).where(new Filter() {
+            @Override
+            public boolean where() {
+                return p.category.equals(c) && p.unitsInStock > min;
+            }
+        }).select();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.Function;
+import com.iciql.test.models.Product;
+import com.iciql.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the shared state of query building under contention: the
+ * Function tokens and the alias counter of Utils.nextAsCount.
+ * <p>
+ * The benchmarks run on all available processors. Compare the throughput
+ * with a single thread, e.g. -t 1, to see how they scale with the cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ContentionBenchmark {
+
+    /**
+     * The alias of the queries of one thread.
+     */
+    @State(Scope.Thread)
+    public static class Alias {
+
+        public Product p = new Product();
+    }
+
+    @Benchmark
+    public String functionTokenQuery(DatabaseState state, Alias alias) {
+        Product p = alias.p;
+        return state.db.from(p).where(Function.length(p.productName)).exceeds(10).toSQL();
+    }
+
+    @Benchmark
+    public int nextAsCount() {
+        return Utils.nextAsCount();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the value conversions of Utils.convert.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBenchmark {
+
+    private Object integer = Integer.valueOf(42);
+    private Object decimal = new BigDecimal("42.5");
+    private Object string = "42";
+    private Object timestamp = new java.sql.Timestamp(0);
+
+    @Benchmark
+    public Object sameType() {
+        return Utils.convert(integer, Integer.class);
+    }
+
+    @Benchmark
+    public Object integerToLong() {
+        return Utils.convert(integer, Long.class);
+    }
+
+    @Benchmark
+    public Object decimalToDouble() {
+        return Utils.convert(decimal, Double.class);
+    }
+
+    @Benchmark
+    public Object stringToInteger() {
+        return Utils.convert(string, Integer.class);
+    }
+
+    @Benchmark
+    public Object timestampToDate() {
+        return Utils.convert(timestamp, java.util.Date.class);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.test.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the insert and update paths of Db.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrudBenchmark {
+
+    @Benchmark
+    public boolean insert(DatabaseState state) {
+        return state.db.insert(state.newProduct());
+    }
+
+    @Benchmark
+    public void insertAll(DatabaseState state) {
+        List<Product> products = new ArrayList<Product>();
+        for (int i = 0; i < 100; i++) {
+            products.add(state.newProduct());
+        }
+        state.db.insertAll(products);
+    }
+
+    @Benchmark
+    public boolean update(DatabaseState state) {
+        Product p = new Product();
+        Product chai = state.db.from(p).where(p.productId).is(1).selectFirst();
+        chai.unitsInStock = chai.unitsInStock + 1;
+        return state.db.update(chai);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.Dao;
+import com.iciql.test.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks DaoProxy.invoke through a Dao interface.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoBenchmark {
+
+    public interface ProductDao extends Dao {
+
+        @SqlQuery("select * from Product where productId = :id")
+        Product getProduct(@Bind("id") long id);
+
+        @SqlQuery("select * from Product")
+        Product[] getAllProducts();
+
+        @SqlQuery("select productName from Product where productId = :?")
+        String getProductName(long id);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DaoState {
+
+        ProductDao dao;
+
+        @Setup(Level.Trial)
+        public void open(DatabaseState state) {
+            dao = state.db.open(ProductDao.class);
+        }
+    }
+
+    @Benchmark
+    public Product getProduct(DaoState state) {
+        return state.dao.getProduct(7);
+    }
+
+    @Benchmark
+    public Product[] getAllProducts(DaoState state) {
+        return state.dao.getAllProducts();
+    }
+
+    @Benchmark
+    public String getProductName(DaoState state) {
+        return state.dao.getProductName(7);
+    }
+}
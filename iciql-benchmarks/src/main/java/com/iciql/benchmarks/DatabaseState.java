@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.Db;
+import com.iciql.test.models.Order;
+import com.iciql.test.models.Product;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory database with the Product and Order sample tables.
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+    /**
+     * The first product id of the rows inserted by the benchmarks.
+     */
+    public static final int FIRST_ID = 1000;
+
+    @Param({"h2", "hsqldb", "derby", "sqlite"})
+    public String database;
+
+    public Db db;
+
+    private final AtomicInteger ids = new AtomicInteger(FIRST_ID);
+
+    public static String getUrl(String database) {
+        if ("h2".equals(database)) {
+            return "jdbc:h2:mem:iciqlbench";
+        } else if ("hsqldb".equals(database)) {
+            return "jdbc:hsqldb:mem:iciqlbench";
+        } else if ("derby".equals(database)) {
+            return "jdbc:derby:memory:iciqlbench;create=true";
+        } else if ("sqlite".equals(database)) {
+            return "jdbc:sqlite:file::memory:?cache=shared";
+        }
+        throw new IllegalArgumentException("Unknown database " + database);
+    }
+
+    @Setup(Level.Trial)
+    public void open() {
+        db = Db.open(getUrl(database), "sa", "");
+        db.dropTable(Product.class);
+        db.dropTable(Order.class);
+        db.insertAll(Product.getList());
+        db.insertAll(Order.getList());
+    }
+
+    /**
+     * Removes the rows inserted by the benchmarks.
+     */
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        Product p = new Product();
+        db.from(p).where(p.productId).atLeast(FIRST_ID).delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        db.dropTable(Product.class);
+        db.dropTable(Order.class);
+        db.close();
+    }
+
+    /**
+     * Returns a new product with a unique id.
+     */
+    public Product newProduct() {
+        Product p = new Product();
+        p.productId = ids.getAndIncrement();
+        p.productName = "Product " + p.productId;
+        p.category = "Benchmarks";
+        p.unitPrice = 10.5d;
+        p.unitsInStock = 100;
+        return p;
+    }
+}
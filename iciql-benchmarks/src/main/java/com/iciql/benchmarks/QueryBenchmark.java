@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.benchmarks;
+
+import com.iciql.test.models.Order;
+import com.iciql.test.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Query.select on the sample models.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Benchmark
+    public List<Product> selectAllProducts(DatabaseState state) {
+        Product p = new Product();
+        return state.db.from(p).select();
+    }
+
+    @Benchmark
+    public List<Product> selectProductsByCategory(DatabaseState state) {
+        Product p = new Product();
+        return state.db.from(p).where(p.category).is("Condiments").orderBy(p.productId).select();
+    }
+
+    @Benchmark
+    public Product selectProductById(DatabaseState state) {
+        Product p = new Product();
+        return state.db.from(p).where(p.productId).is(7).selectFirst();
+    }
+
+    @Benchmark
+    public List<Order> selectOrdersByCustomer(DatabaseState state) {
+        Order o = new Order();
+        return state.db.from(o).where(o.customerId).is("ANATR").select();
+    }
+
+    @Benchmark
+    public long countProducts(DatabaseState state) {
+        Product p = new Product();
+        return state.db.from(p).where(p.unitsInStock).exceeds(0).selectCount();
+    }
+}
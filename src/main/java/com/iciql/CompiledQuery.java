@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.TableDefinition.FieldDefinition;
+import com.iciql.util.IciqlLogger;
+import com.iciql.util.Utils;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * An immutable, compiled SELECT query. The SQL, the static parameters, the
+ * column mapping and the runtime parameter bindings are computed once by
+ * Query.compile() so that executing the query skips DSL evaluation and SQL
+ * generation.
+ * <p>
+ * A compiled query does not reference the alias objects of the query it was
+ * compiled from and may be executed concurrently from any thread, each with
+ * its own Db of the same dialect.
+ * <p>
+ * <pre>
+ * Product p = new Product();
+ * CompiledQuery&lt;Product&gt; q = db.from(p).where(p.category).isParameter().compile();
+ * List&lt;Product&gt; list = q.execute(db, &quot;Beverages&quot;);
+ * </pre>
+ *
+ * @param <T> the model class
+ */
+public final class CompiledQuery<T> {
+
+    private final String sql;
+    private final Class<T> clazz;
+    private final Class<? extends SQLDialect> dialectClass;
+    private final Object[] parameters;
+    private final ParameterBinder[] binders;
+    private final int[] runtimeIndexes;
+    private final FieldDefinition[] runtimeFields;
+    private final int[] columns;
+    private final int fetchSize;
+    private final long maxRows;
+
+    CompiledQuery(Db db, SQLStatement stat, TableDefinition<T> def) {
+        this.sql = stat.getSQL();
+        this.clazz = def.getModelClass();
+        this.dialectClass = db.getDialect().getClass();
+        this.parameters = stat.getParameters().toArray();
+        List<Integer> indexes = stat.getRuntimeIndexes();
+        this.runtimeIndexes = new int[indexes.size()];
+        for (int i = 0; i < runtimeIndexes.length; i++) {
+            runtimeIndexes[i] = indexes.get(i);
+        }
+        List<FieldDefinition> fields = stat.getRuntimeFields();
+        this.runtimeFields = fields.toArray(new FieldDefinition[fields.size()]);
+        this.binders = stat.getBinders();
+        for (int i = 0; i < runtimeIndexes.length; i++) {
+            if (runtimeFields[i] != null) {
+                binders[runtimeIndexes[i]] = runtimeFields[i].binder;
+            }
+        }
+        // explicit select list, the mapping does not depend on the ResultSet
+        this.columns = def.mapColumns(db.getDialect(), false, null);
+        this.fetchSize = stat.getFetchSize();
+        this.maxRows = stat.getMaxRows();
+    }
+
+    /**
+     * Returns the SQL of the compiled query.
+     *
+     * @return the SQL statement
+     */
+    public String getSQL() {
+        return sql;
+    }
+
+    /**
+     * Returns the number of runtime parameters that must be supplied to
+     * execute the query.
+     *
+     * @return the number of runtime parameters
+     */
+    public int getParameterCount() {
+        return runtimeIndexes.length;
+    }
+
+    /**
+     * Executes the compiled query.
+     *
+     * @param db     the database
+     * @param params the runtime parameter values in declaration order
+     * @return the query result
+     */
+    public List<T> execute(Db db, Object... params) {
+        List<T> result = Utils.newArrayList();
+        QueryCursor<T> cursor = iterate(db, params);
+        try {
+            while (cursor.hasNext()) {
+                result.add(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+        return result;
+    }
+
+    /**
+     * Executes the compiled query and returns the first row.
+     *
+     * @param db     the database
+     * @param params the runtime parameter values in declaration order
+     * @return the first row or null
+     */
+    public T executeFirst(Db db, Object... params) {
+        QueryCursor<T> cursor = iterate(db, params);
+        try {
+            return cursor.hasNext() ? cursor.next() : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Executes the compiled query and returns a cursor over the result.
+     *
+     * @param db     the database
+     * @param params the runtime parameter values in declaration order
+     * @return a cursor over the query result
+     */
+    public QueryCursor<T> iterate(Db db, Object... params) {
+        if (!dialectClass.equals(db.getDialect().getClass())) {
+            throw new IciqlException("Query compiled for {0} can not be executed with {1}",
+                    dialectClass.getSimpleName(), db.getDialect().getClass().getSimpleName());
+        }
+        int count = params == null ? 0 : params.length;
+        if (count != runtimeIndexes.length) {
+            throw new IciqlException("Query requires {0} parameters but {1} were supplied",
+                    runtimeIndexes.length, count);
+        }
+        Object[] values = parameters.clone();
+        for (int i = 0; i < runtimeIndexes.length; i++) {
+            values[runtimeIndexes[i]] = bind(db.getDialect(), runtimeFields[i], params[i]);
+        }
+        SQLStatement stat = new SQLStatement(db);
+        stat.setSQL(sql);
+        for (int i = 0; i < values.length; i++) {
+            stat.addParameter(values[i], binders[i]);
+        }
+        stat.setFetchSize(fetchSize);
+        stat.setMaxRows(maxRows);
+        stat.setModelClass(clazz);
+        stat.setMapped(true);
+        IciqlLogger.select(sql);
+        ResultSet rs = stat.executeQuery();
+        return new QueryCursor<T>(db, stat, rs, db.define(clazz), clazz, false, columns);
+    }
+
+    /**
+     * Converts a runtime parameter value like the DSL converts a static value
+     * of the same field.
+     */
+    private Object bind(SQLDialect dialect, FieldDefinition field, Object value) {
+        if (field == null) {
+            // primitive
+            return value;
+        }
+        return field.toParameter(dialect, value);
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -24,11 +24,11 @@ import com.iciql.Iciql.IQTable;
 import com.iciql.Iciql.IQVersion;
 import com.iciql.Iciql.IQView;
 import com.iciql.Iciql.Mode;
+import com.iciql.util.ConcurrentWeakIdentityHashMap;
 import com.iciql.util.IciqlLogger;
 import com.iciql.util.JdbcUtils;
 import com.iciql.util.StringUtils;
 import com.iciql.util.Utils;
-import com.iciql.util.WeakIdentityHashMap;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -41,11 +41,11 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents a connection to a database.
@@ -53,6 +53,12 @@ import java.util.Set;
 
 public class Db implements AutoCloseable {
 
+    /**
+     * The default number of rows sent per JDBC batch by insertAll, updateAll
+     * and deleteAll.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
     /**
      * This map It holds unique tokens that are generated by functions such as
      * Function.sum(..) in "db.from(p).select(Function.sum(p.unitPrice))". It
@@ -63,21 +69,33 @@ public class Db implements AutoCloseable {
 
     private static final Map<String, Class<? extends SQLDialect>> DIALECTS;
 
+    private static volatile long defaultSlowStatementNanos;
+
     private final Connection conn;
     private final Mode mode;
-    private final Map<Class<?>, TableDefinition<?>> classMap = Collections
-            .synchronizedMap(new HashMap<Class<?>, TableDefinition<?>>());
+    private final Map<Class<?>, TableDefinition<?>> classMap =
+            new ConcurrentHashMap<Class<?>, TableDefinition<?>>();
     private final SQLDialect dialect;
     private DbUpgrader dbUpgrader = new DefaultDbUpgrader();
-    private final Set<Class<?>> upgradeChecked = Collections.synchronizedSet(new HashSet<Class<?>>());
+    private final Set<Class<?>> upgradeChecked = Collections
+            .newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
 
     private boolean skipCreate;
     private boolean autoSavePoint = true;
     private DaoStatementProvider daoStatementProvider;
+    private StatementCache statementCache;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean multiRowInserts;
+    private int defaultFetchSize;
+    private long slowStatementNanos = -1;
+    private String databaseKey;
+    private boolean databaseKeyResolved;
+    private DbPool.Entry poolEntry;
+    private Transaction transaction;
 
     static {
-        TOKENS = Collections.synchronizedMap(new WeakIdentityHashMap<Object, Token>());
-        DIALECTS = Collections.synchronizedMap(new HashMap<String, Class<? extends SQLDialect>>());
+        TOKENS = new ConcurrentWeakIdentityHashMap<Object, Token>();
+        DIALECTS = new ConcurrentHashMap<String, Class<? extends SQLDialect>>();
         // can register by...
         // 1. Connection class name
         // 2. DatabaseMetaData.getDatabaseProductName()
@@ -376,10 +394,14 @@ public class Db implements AutoCloseable {
                 throw e;
             }
         }
-        // remove this model class from the table definition cache
+        // remove this model class from the table definition caches
         classMap.remove(modelClass);
-        // remove this model class from the upgrade checked cache
+        TableDefinitionRegistry.invalidate(modelClass);
+        // remove this model class from the upgrade checked caches
         upgradeChecked.remove(modelClass);
+        SchemaRegistry.invalidate(getDatabaseKey(), getTableKey(def));
+        // cached statements may reference the dropped object
+        clearStatementCache();
         return rc == 1;
     }
 
@@ -397,10 +419,14 @@ public class Db implements AutoCloseable {
                 throw e;
             }
         }
-        // remove this model class from the table definition cache
+        // remove this model class from the table definition caches
         classMap.remove(modelClass);
-        // remove this model class from the upgrade checked cache
+        TableDefinitionRegistry.invalidate(modelClass);
+        // remove this model class from the upgrade checked caches
         upgradeChecked.remove(modelClass);
+        SchemaRegistry.invalidate(getDatabaseKey(), getTableKey(def));
+        // cached statements may reference the dropped object
+        clearStatementCache();
         return rc == 1;
     }
 
@@ -428,6 +454,23 @@ public class Db implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Returns a cursor that maps the ResultSet rows to model objects as it is
+     * iterated. The ResultSet and its statement are closed after the last row
+     * or when the cursor is closed.
+     *
+     * @param modelClass     the model class to bind the ResultSet rows into
+     * @param wildcardSelect true if the query selected all columns with *
+     * @param rs             the ResultSet
+     * @return a cursor over the ResultSet
+     */
+    @SuppressWarnings("unchecked")
+    public <T> QueryCursor<T> iterateObjects(Class<? extends T> modelClass, boolean wildcardSelect,
+                                             ResultSet rs) {
+        TableDefinition<T> def = (TableDefinition<T>) define(modelClass);
+        return new QueryCursor<T>(this, null, rs, def, modelClass, wildcardSelect);
+    }
+
     Db upgradeDb() {
         if (!upgradeChecked.contains(dbUpgrader.getClass())) {
             // flag as checked immediately because calls are nested.
@@ -441,7 +484,8 @@ public class Db implements AutoCloseable {
                     model = superClass.getAnnotation(IQVersion.class);
                 }
             }
-            if (model.value() > 0) {
+            if (model.value() > 0 && !SchemaRegistry.isVerified(getDatabaseKey(), dbUpgrader.getClass(),
+                    model.value())) {
                 DbVersion v = new DbVersion();
                 // (SCHEMA="" && TABLE="") == DATABASE
                 DbVersion dbVersion = from(v).where(v.schemaName).is("").and(v.tableName).is("")
@@ -454,18 +498,24 @@ public class Db implements AutoCloseable {
                     boolean success = dbUpgrader.upgradeDatabase(this, 0, newDb.version);
                     if (success) {
                         insert(newDb);
+                        SchemaRegistry.verified(getDatabaseKey(), dbUpgrader.getClass(), model.value(), null);
                     }
                 } else {
                     // database has a version registration:
                     // check to see if upgrade is required.
+                    boolean current = model.value() <= dbVersion.version;
                     if ((model.value() > dbVersion.version) && (dbUpgrader != null)) {
                         // database is an older version than the model
                         boolean success = dbUpgrader.upgradeDatabase(this, dbVersion.version, model.value());
                         if (success) {
                             dbVersion.version = model.value();
                             update(dbVersion);
+                            current = true;
                         }
                     }
+                    if (current) {
+                        SchemaRegistry.verified(getDatabaseKey(), dbUpgrader.getClass(), model.value(), null);
+                    }
                 }
             }
         }
@@ -476,7 +526,15 @@ public class Db implements AutoCloseable {
         if (!upgradeChecked.contains(model.getModelClass())) {
             // flag is checked immediately because calls are nested
             upgradeChecked.add(model.getModelClass());
+            if (SchemaRegistry.isVerified(getDatabaseKey(), model.getModelClass(), model.tableVersion)) {
+                // verified by another Db
+                return;
+            }
+            if (transaction != null) {
+                transaction.checkedTable(model);
+            }
 
+            boolean current = true;
             if (model.tableVersion > 0) {
                 // table is using iciql version tracking.
                 DbVersion v = new DbVersion();
@@ -493,6 +551,7 @@ public class Db implements AutoCloseable {
                 } else {
                     // table has a version registration:
                     // check if upgrade is required
+                    current = model.tableVersion <= dbVersion.version;
                     if ((model.tableVersion > dbVersion.version) && (dbUpgrader != null)) {
                         // table is an older version than model
                         boolean success = dbUpgrader.upgradeTable(this, schema, model.tableName,
@@ -500,10 +559,15 @@ public class Db implements AutoCloseable {
                         if (success) {
                             dbVersion.version = model.tableVersion;
                             update(dbVersion);
+                            current = true;
                         }
                     }
                 }
             }
+            if (current) {
+                SchemaRegistry.verified(getDatabaseKey(), model.getModelClass(), model.tableVersion,
+                        getTableKey(model));
+            }
         }
     }
 
@@ -511,6 +575,12 @@ public class Db implements AutoCloseable {
         TableDefinition<T> def = getTableDefinition(clazz);
         if (def == null) {
             upgradeDb();
+            def = TableDefinitionRegistry.get(dialect.getClass(), mode, clazz);
+            if (def != null) {
+                // reuse the definition mapped by another Db
+                classMap.put(clazz, def);
+                return def;
+            }
             def = new TableDefinition<T>(clazz);
             def.mapFields(this);
             classMap.put(clazz, def);
@@ -529,12 +599,80 @@ public class Db implements AutoCloseable {
                 T t = instance(clazz);
                 def.mapObject(t);
             }
+            // share the completely mapped definition
+            def = TableDefinitionRegistry.register(dialect.getClass(), mode, def);
+            classMap.put(clazz, def);
         }
         return def;
     }
 
-    <T> boolean hasCreated(Class<T> clazz) {
-        return upgradeChecked.contains(clazz);
+    <T> boolean hasCreated(TableDefinition<T> def) {
+        Class<T> clazz = def.getModelClass();
+        if (upgradeChecked.contains(clazz)) {
+            return true;
+        }
+        if (SchemaRegistry.isVerified(getDatabaseKey(), clazz, def.tableVersion)) {
+            // created and upgraded by another Db
+            upgradeChecked.add(clazz);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isSchemaChange(String sql) {
+        String s = sql.trim();
+        return s.regionMatches(true, 0, "DROP ", 0, 5) || s.regionMatches(true, 0, "ALTER ", 0, 6);
+    }
+
+    /**
+     * Returns the key of the table or view of a model in the schema registry.
+     */
+    private String getTableKey(TableDefinition<?> def) {
+        String table = StringUtils.isNullOrEmpty(def.viewTableName) ? def.tableName : def.viewTableName;
+        String schema = StringUtils.isNullOrEmpty(def.schemaName) ? "" : def.schemaName + ".";
+        return (schema + table).toLowerCase();
+    }
+
+    /**
+     * Returns the key of the database in the schema registry, or null if the
+     * database is in-memory or the connection metadata is not available.
+     * An in-memory database may be discarded with its last connection, so
+     * its tables are checked by each Db.
+     */
+    private String getDatabaseKey() {
+        if (!databaseKeyResolved) {
+            databaseKeyResolved = true;
+            try {
+                DatabaseMetaData data = conn.getMetaData();
+                if (!isInMemory(data.getURL())) {
+                    databaseKey = data.getURL() + ";user=" + data.getUserName() + ";catalog=" + conn.getCatalog()
+                            + ";schema=" + getSchema(conn);
+                }
+            } catch (SQLException e) {
+                IciqlLogger.warn("Failed to identify database for the schema registry: {0}", e.getMessage());
+            }
+        }
+        return databaseKey;
+    }
+
+    /**
+     * Returns the current schema of the connection, or null if the driver
+     * does not implement Connection.getSchema() (JDBC 4.1).
+     */
+    private static String getSchema(Connection conn) {
+        try {
+            return (String) Connection.class.getMethod("getSchema").invoke(conn);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static boolean isInMemory(String url) {
+        if (url == null) {
+            return true;
+        }
+        String u = url.toLowerCase();
+        return u.contains(":mem:") || u.contains(":memory:") || u.contains("mode=memory");
     }
 
     public synchronized void setDbUpgrader(DbUpgrader upgrader) {
@@ -543,6 +681,8 @@ public class Db implements AutoCloseable {
         }
         this.dbUpgrader = upgrader;
         upgradeChecked.clear();
+        // the new upgrader may change the schema
+        SchemaRegistry.reset(getDatabaseKey());
     }
 
     public SQLDialect getDialect() {
@@ -553,8 +693,30 @@ public class Db implements AutoCloseable {
         return conn;
     }
 
+    /**
+     * Closes the connection, or returns this Db to its pool if it was opened
+     * from a DbPool.
+     */
     @Override
     public void close() {
+        if (poolEntry != null) {
+            poolEntry.release();
+            return;
+        }
+        closeConnection();
+    }
+
+    void closeConnection() {
+        if (transaction != null) {
+            try {
+                transaction.rollback();
+            } catch (IciqlException e) {
+                IciqlLogger.warn("Failed to rollback transaction on close: {0}", e.getMessage());
+            }
+        }
+        if (statementCache != null) {
+            statementCache.clear();
+        }
         try {
             conn.close();
         } catch (Exception e) {
@@ -562,6 +724,141 @@ public class Db implements AutoCloseable {
         }
     }
 
+    void setPoolEntry(DbPool.Entry poolEntry) {
+        this.poolEntry = poolEntry;
+    }
+
+    /**
+     * Begins a transaction. Auto-commit is turned off until the transaction
+     * is committed or rolled back and the bulk methods do not set their own
+     * savepoints.
+     *
+     * @return the transaction
+     */
+    public Transaction beginTransaction() {
+        return beginTransaction(Transaction.DEFAULT_ISOLATION, false);
+    }
+
+    /**
+     * Begins a transaction with an isolation level and read-only hint.
+     *
+     * @param isolation the Connection.TRANSACTION_* isolation level or
+     *                  Transaction.DEFAULT_ISOLATION
+     * @param readOnly  true to hint the driver that the transaction does not
+     *                  write
+     * @return the transaction
+     */
+    public Transaction beginTransaction(int isolation, boolean readOnly) {
+        if (transaction != null) {
+            throw new IciqlException("A transaction is already active");
+        }
+        transaction = new Transaction(this, isolation, readOnly);
+        return transaction;
+    }
+
+    /**
+     * Returns the active transaction.
+     *
+     * @return the active transaction or null
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    void endTransaction(Transaction t) {
+        if (transaction == t) {
+            transaction = null;
+        }
+    }
+
+    /**
+     * Forgets the table checks of a rolled back transaction.
+     */
+    void uncheckTables(List<TableDefinition<?>> defs) {
+        for (TableDefinition<?> def : defs) {
+            upgradeChecked.remove(def.getModelClass());
+            SchemaRegistry.invalidate(getDatabaseKey(), getTableKey(def));
+        }
+    }
+
+    /**
+     * Runs a unit of work in a transaction which is committed when the work
+     * completes and rolled back when it fails. If a transaction is already
+     * active the work joins it.
+     *
+     * @param work the unit of work
+     * @return the result of the work
+     */
+    public <T> T inTransaction(Work<T> work) {
+        if (transaction != null) {
+            return run(work);
+        }
+        return inTransaction(Transaction.DEFAULT_ISOLATION, false, work);
+    }
+
+    /**
+     * Runs a unit of work in a transaction with an isolation level and
+     * read-only hint. If a transaction is already active the work joins it,
+     * provided the active transaction has the same read-only hint and, unless
+     * isolation is Transaction.DEFAULT_ISOLATION, the same isolation level.
+     *
+     * @param isolation the Connection.TRANSACTION_* isolation level or
+     *                  Transaction.DEFAULT_ISOLATION
+     * @param readOnly  true to hint the driver that the transaction does not
+     *                  write
+     * @param work      the unit of work
+     * @return the result of the work
+     * @throws IciqlException if the active transaction has another isolation
+     *                        level or read-only hint
+     * @see #inTransaction(Work)
+     */
+    public <T> T inTransaction(int isolation, boolean readOnly, Work<T> work) {
+        if (transaction != null) {
+            checkJoin(transaction, isolation, readOnly);
+            return run(work);
+        }
+        Transaction t = beginTransaction(isolation, readOnly);
+        try {
+            T result = run(work);
+            t.commit();
+            return result;
+        } finally {
+            t.close();
+        }
+    }
+
+    private void checkJoin(Transaction t, int isolation, boolean readOnly) {
+        if (t.isReadOnly() != readOnly) {
+            throw new IciqlException("Can not join a {0} transaction with a {1} unit of work",
+                    t.isReadOnly() ? "read-only" : "read-write", readOnly ? "read-only" : "read-write");
+        }
+        if (isolation == Transaction.DEFAULT_ISOLATION) {
+            return;
+        }
+        int active = t.getIsolation();
+        if (active == Transaction.DEFAULT_ISOLATION) {
+            try {
+                active = conn.getTransactionIsolation();
+            } catch (SQLException e) {
+                throw new IciqlException(e);
+            }
+        }
+        if (active != isolation) {
+            throw new IciqlException("Can not join a transaction of isolation level {0} with a unit of work of "
+                    + "isolation level {1}", active, isolation);
+        }
+    }
+
+    private <T> T run(Work<T> work) {
+        try {
+            return work.run(this);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IciqlException(e);
+        }
+    }
+
     public <A> TestCondition<A> test(A x) {
         return new TestCondition<A>(x);
     }
@@ -571,47 +868,54 @@ public class Db implements AutoCloseable {
             return;
         }
         Savepoint savepoint = null;
+        SQLBatch batch = new SQLBatch(this, "insert", batchSize, true);
         try {
             Class<?> clazz = list.get(0).getClass();
             TableDefinition<?> def = define(clazz).createIfRequired(this);
             savepoint = prepareSavepoint();
-            for (T t : list) {
-                PreparedStatement ps = def.createInsertStatement(this, t, false);
-                int rc = ps.executeUpdate();
-                if (rc == 0) {
-                    throw new IciqlException("Failed to insert {0}.  Affected rowcount == 0.", t);
+            if (multiRowInserts && getMaxInsertParameters() > 0) {
+                def.insertRows(this, list, batchSize);
+            } else {
+                for (T t : list) {
+                    batch.add(def.createInsert(this, t), t);
                 }
+                batch.flush();
             }
             commit(savepoint);
-        } catch (SQLException e) {
-            rollback(savepoint);
-            throw new IciqlException(e);
         } catch (IciqlException e) {
             rollback(savepoint);
             throw e;
+        } finally {
+            batch.close();
         }
     }
 
     public <T> List<Long> insertAllAndGetKeys(List<T> list) {
-        List<Long> identities = new ArrayList<Long>();
         if (list.size() == 0) {
-            return identities;
+            return new ArrayList<Long>();
         }
         Savepoint savepoint = null;
+        // dialects that can not return the keys of a batch insert row by row
+        boolean batchKeys = dialect instanceof SQLDialectDefault
+                && ((SQLDialectDefault) dialect).supportsBatchGeneratedKeys();
+        int keysBatchSize = batchKeys ? batchSize : 1;
+        SQLBatch batch = new SQLBatch(this, "insert", keysBatchSize, false, true);
         try {
             Class<?> clazz = list.get(0).getClass();
             TableDefinition<?> def = define(clazz).createIfRequired(this);
             savepoint = prepareSavepoint();
             for (T t : list) {
-                long key = def.insert(this, t, true);
-                identities.add(key);
+                batch.add(def.createInsert(this, t), t);
             }
+            batch.flush();
             commit(savepoint);
         } catch (IciqlException e) {
             rollback(savepoint);
             throw e;
+        } finally {
+            batch.close();
         }
-        return identities;
+        return batch.getGeneratedKeys();
     }
 
     public <T> void updateAll(List<T> list) {
@@ -619,17 +923,21 @@ public class Db implements AutoCloseable {
             return;
         }
         Savepoint savepoint = null;
+        SQLBatch batch = new SQLBatch(this, "update", batchSize, false);
         try {
             Class<?> clazz = list.get(0).getClass();
             TableDefinition<?> def = define(clazz).createIfRequired(this);
             savepoint = prepareSavepoint();
             for (T t : list) {
-                def.update(this, t);
+                batch.add(def.createUpdate(this, t), t);
             }
+            batch.flush();
             commit(savepoint);
         } catch (IciqlException e) {
             rollback(savepoint);
             throw e;
+        } finally {
+            batch.close();
         }
     }
 
@@ -638,23 +946,30 @@ public class Db implements AutoCloseable {
             return;
         }
         Savepoint savepoint = null;
+        SQLBatch batch = new SQLBatch(this, "delete", batchSize, false);
         try {
             Class<?> clazz = list.get(0).getClass();
             TableDefinition<?> def = define(clazz).createIfRequired(this);
             savepoint = prepareSavepoint();
             for (T t : list) {
-                def.delete(this, t);
+                batch.add(def.createDelete(this, t), t);
             }
+            batch.flush();
             commit(savepoint);
         } catch (IciqlException e) {
             rollback(savepoint);
             throw e;
+        } finally {
+            batch.close();
         }
     }
 
     PreparedStatement prepare(String sql, boolean returnGeneratedKeys) {
         IciqlException.checkUnmappedField(sql);
         try {
+            if (statementCache != null) {
+                return statementCache.lease(sql, returnGeneratedKeys);
+            }
             if (returnGeneratedKeys) {
                 return conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             }
@@ -664,10 +979,58 @@ public class Db implements AutoCloseable {
         }
     }
 
+    /**
+     * Flags a statement whose query settings are about to be changed so that
+     * a cached statement is reset when it is released.
+     *
+     * @param statement
+     */
+    void configured(Statement statement) {
+        if (statementCache != null) {
+            statementCache.configured(statement);
+        }
+    }
+
+    /**
+     * Closes a statement obtained from prepare() or returns it to the
+     * statement cache.
+     *
+     * @param stat the statement or null
+     */
+    void closeSilently(Statement stat) {
+        if (statementCache == null) {
+            JdbcUtils.closeSilently(stat);
+        } else {
+            statementCache.release(stat);
+        }
+    }
+
+    /**
+     * Closes a result set and closes its statement or returns it to the
+     * statement cache.
+     *
+     * @param rs the result set or null
+     */
+    void closeSilently(ResultSet rs) {
+        if (statementCache == null) {
+            JdbcUtils.closeSilently(rs, true);
+        } else if (rs != null) {
+            Statement stat = null;
+            try {
+                stat = rs.getStatement();
+            } catch (SQLException e) {
+                // ignore
+            }
+            JdbcUtils.closeSilently(rs);
+            statementCache.release(stat);
+        }
+    }
+
     Savepoint prepareSavepoint() {
         // don't change auto-commit mode.
         // don't create save point.
-        if (!autoSavePoint || !dialect.supportsSavePoints()) {
+        // an active transaction is committed or rolled back as a whole.
+        if (!autoSavePoint || transaction != null || !dialect.supportsSavePoints()) {
             return null;
         }
         // create a savepoint
@@ -821,6 +1184,10 @@ public class Db implements AutoCloseable {
                 updateCount = ps.executeUpdate();
                 stat = ps;
             }
+            if (isSchemaChange(sql)) {
+                // the registered tables may have been dropped or altered
+                SchemaRegistry.reset(getDatabaseKey());
+            }
             return updateCount;
         } catch (SQLException e) {
             throw new IciqlException(e);
@@ -859,6 +1226,226 @@ public class Db implements AutoCloseable {
         return this.autoSavePoint;
     }
 
+    /**
+     * Sets the maximum number of rows sent to the database in one JDBC batch
+     * by insertAll, updateAll and deleteAll. A batch size of 1 executes each
+     * row individually.
+     *
+     * @param batchSize the number of rows per batch
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IciqlException("Invalid batch size {0}", batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the default fetch size hint of queries created by this Db. A value
+     * of 0 uses the driver default.
+     *
+     * @param fetchSize the default fetch size
+     */
+    public void setDefaultFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IciqlException("Invalid fetch size {0}", fetchSize);
+        }
+        this.defaultFetchSize = fetchSize;
+    }
+
+    public int getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+
+    /**
+     * Sets the execution time above which the statements of this Db are
+     * logged as SLOW statements to the IciqlListeners, with their parameters,
+     * the execution and row mapping times and the number of rows. A value of
+     * 0 disables the slow statement log of this Db.
+     *
+     * @param threshold the threshold
+     * @param unit      the unit of the threshold
+     */
+    public void setSlowStatementThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IciqlException("Invalid slow statement threshold {0}", threshold);
+        }
+        this.slowStatementNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * Sets the slow statement threshold of all Db instances which do not set
+     * their own threshold. A value of 0 disables the slow statement log.
+     *
+     * @param threshold the threshold
+     * @param unit      the unit of the threshold
+     */
+    public static void setDefaultSlowStatementThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IciqlException("Invalid slow statement threshold {0}", threshold);
+        }
+        defaultSlowStatementNanos = unit.toNanos(threshold);
+    }
+
+    long getSlowStatementNanos() {
+        return slowStatementNanos < 0 ? defaultSlowStatementNanos : slowStatementNanos;
+    }
+
+    /**
+     * Allow to enable/disable multi-row inserts in insertAll. When enabled,
+     * insertAll sends INSERT INTO ... VALUES (...), (...) statements of up to
+     * batch size rows, limited by the parameter limit of the dialect.
+     * Dialects without multi-row insert support, and dialects which do not
+     * extend SQLDialectDefault, use JDBC batching.
+     * Default value is false.
+     *
+     * @param multiRowInserts
+     */
+    public void setMultiRowInserts(boolean multiRowInserts) {
+        this.multiRowInserts = multiRowInserts;
+    }
+
+    public boolean getMultiRowInserts() {
+        return multiRowInserts;
+    }
+
+    /**
+     * Returns the parameter limit of a multi-row insert, or 0 if the dialect
+     * does not extend SQLDialectDefault and so can not prepare one.
+     */
+    int getMaxInsertParameters() {
+        if (dialect instanceof SQLDialectDefault) {
+            return ((SQLDialectDefault) dialect).getMaxInsertParameters();
+        }
+        return 0;
+    }
+
+    /**
+     * Enables a per-connection cache of prepared statements. Statements are
+     * keyed by their SQL text and generated-keys flag and the least recently
+     * used statement is closed when the cache is full.
+     * <p>
+     * The cache is disabled by default. A size of 0 disables the cache and
+     * closes all cached statements.
+     *
+     * @param size the maximum number of cached statements
+     */
+    public void setStatementCacheSize(int size) {
+        if (size < 0) {
+            throw new IciqlException("Invalid statement cache size {0}", size);
+        }
+        if (statementCache != null) {
+            statementCache.clear();
+            statementCache = null;
+        }
+        if (size > 0) {
+            statementCache = new StatementCache(conn, size);
+        }
+    }
+
+    public int getStatementCacheSize() {
+        return statementCache == null ? 0 : statementCache.getCapacity();
+    }
+
+    /**
+     * Returns the number of prepared statements served from the cache.
+     *
+     * @return the statement cache hit count
+     */
+    public long getStatementCacheHits() {
+        return statementCache == null ? 0 : statementCache.getHits();
+    }
+
+    /**
+     * Returns the number of prepared statements that had to be prepared by the
+     * driver because they were not available in the cache.
+     *
+     * @return the statement cache miss count
+     */
+    public long getStatementCacheMisses() {
+        return statementCache == null ? 0 : statementCache.getMisses();
+    }
+
+    /**
+     * Returns the number of prepared statements evicted from the cache.
+     *
+     * @return the statement cache eviction count
+     */
+    public long getStatementCacheEvictions() {
+        return statementCache == null ? 0 : statementCache.getEvictions();
+    }
+
+    /**
+     * Removes the table definition of a model class from the process-wide
+     * registry that is shared by all Db instances. Db instances which already
+     * use the definition keep it; other instances map the model again.
+     *
+     * @param modelClass the model class
+     */
+    public static void invalidateTableDefinition(Class<?> modelClass) {
+        TableDefinitionRegistry.invalidate(modelClass);
+    }
+
+    /**
+     * Removes all table definitions from the process-wide registry that is
+     * shared by all Db instances.
+     */
+    public static void clearTableDefinitions() {
+        TableDefinitionRegistry.clear();
+    }
+
+    /**
+     * Removes all entries of the process-wide schema registry. The registry
+     * records the models whose tables have been created and upgraded in a
+     * database so that other Db instances of the same database skip these
+     * checks. Reset the registry after changing a schema outside of iciql.
+     */
+    public static void resetSchemaRegistry() {
+        SchemaRegistry.reset();
+    }
+
+    /**
+     * Sets the time after which the entries of the process-wide schema
+     * registry expire and the tables of a model are checked again. A value of
+     * 0, the default, keeps the entries until they are reset.
+     *
+     * @param ttl  the time-to-live
+     * @param unit the unit of the time-to-live
+     */
+    public static void setSchemaRegistryTtl(long ttl, TimeUnit unit) {
+        SchemaRegistry.setTtl(ttl, unit);
+    }
+
+    /**
+     * Closes and removes all cached prepared statements.
+     */
+    public void clearStatementCache() {
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+    }
+
+    /**
+     * A unit of work run in a transaction by inTransaction().
+     *
+     * @param <T> the result type
+     */
+    public interface Work<T> {
+
+        /**
+         * Runs the work.
+         *
+         * @param db the database
+         * @return the result of the work
+         * @throws Exception to roll back the transaction
+         */
+        T run(Db db) throws Exception;
+    }
+
     /**
      * Default DAO statement provider.
      */
@@ -0,0 +1,712 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.Iciql.Mode;
+import com.iciql.util.IciqlLogger;
+import com.iciql.util.JdbcUtils;
+import com.iciql.util.Utils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A pool of Db instances.
+ * <p>
+ * A pooled Db keeps its connection, dialect, table definitions, prepared
+ * statement cache and verified schema state across leases, so that opening
+ * a Db from the pool costs about as much as taking it from the idle stack.
+ * Closing a pooled Db returns it to the pool. A transaction left open by the
+ * previous lease is rolled back on return.
+ * <p>
+ * Idle instances are kept on a lock-free stack and the most recently used
+ * instance is leased first. Only a caller that finds the pool exhausted
+ * blocks, until an instance is returned or the maximum wait expires.
+ * Instances idle for longer than the validation interval are validated
+ * before they are leased, instances idle for longer than the idle timeout
+ * are closed down to the minimum idle count by a background evictor. The
+ * evictor claims expired instances where they lie in the idle stack, so it
+ * never takes instances away from a concurrent open().
+ * <p>
+ * Configure the pool before the first open(). Settings changed on a leased
+ * Db apply to later leases of the same instance.
+ * <p>
+ * <pre>
+ * DbPool pool = new DbPool(dataSource);
+ * pool.setMaxSize(20);
+ * pool.setStatementCacheSize(50);
+ *
+ * Db db = pool.open();
+ * try {
+ *     ...
+ * } finally {
+ *     db.close();
+ * }
+ * </pre>
+ */
+public class DbPool implements AutoCloseable {
+
+    private static final long MIN_EVICTION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_EVICTION_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    private static ScheduledExecutorService evictor;
+
+    private final DataSource dataSource;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private volatile Mode mode = Mode.PROD;
+    private volatile int minIdle;
+    private volatile int maxSize = 10;
+    private volatile long maxWaitNanos = TimeUnit.SECONDS.toNanos(30);
+    private volatile long idleTimeoutNanos = TimeUnit.MINUTES.toNanos(10);
+    private volatile long validationIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+    private volatile int validationTimeout = 5;
+    private volatile int statementCacheSize;
+
+    private final AtomicReference<Node> idle = new AtomicReference<Node>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile int waiters;
+    private volatile boolean started;
+    private volatile boolean closed;
+    private ScheduledFuture<?> eviction;
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+
+    /**
+     * A pooled Db. An idle entry is claimed by setting leased, either by
+     * open() or by the evictor.
+     */
+    static final class Entry {
+        final DbPool pool;
+        final Db db;
+        final AtomicBoolean leased = new AtomicBoolean();
+        volatile long lastUsed;
+        volatile boolean evicted;
+
+        Entry(DbPool pool, Db db) {
+            this.pool = pool;
+            this.db = db;
+            this.lastUsed = System.nanoTime();
+        }
+
+        void release() {
+            pool.release(this);
+        }
+    }
+
+    /**
+     * A node of the idle stack. A node is never pushed twice, so the evictor
+     * may unlink a node by rewriting the next pointer of its predecessor.
+     */
+    private static final class Node {
+        final Entry entry;
+        volatile Node next;
+
+        Node(Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Creates a pool of the connections of a DataSource. The DataSource should
+     * not pool connections itself.
+     *
+     * @param dataSource the data source
+     */
+    public DbPool(DataSource dataSource) {
+        this(dataSource, null, null, null);
+    }
+
+    /**
+     * Creates a pool of the connections of a JDBC url.
+     *
+     * @param url      the JDBC url
+     * @param user     the user
+     * @param password the password
+     */
+    public DbPool(String url, String user, String password) {
+        this(null, url, user, password);
+    }
+
+    private DbPool(DataSource dataSource, String url, String user, String password) {
+        this.dataSource = dataSource;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Sets the runtime mode of the pooled Db instances.
+     *
+     * @param mode the runtime mode
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Sets the number of idle instances the evictor keeps open. The evictor
+     * opens instances only while the pool holds fewer than this number,
+     * leased and idle, so it does not grow the pool while every instance is
+     * leased. Default is 0.
+     *
+     * @param minIdle the minimum number of idle instances
+     */
+    public void setMinIdle(int minIdle) {
+        if (minIdle < 0) {
+            throw new IciqlException("Invalid minimum idle size {0}", minIdle);
+        }
+        this.minIdle = minIdle;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Sets the maximum number of open instances, leased and idle. Default is
+     * 10.
+     *
+     * @param maxSize the maximum size of the pool
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IciqlException("Invalid maximum pool size {0}", maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum time open() waits for an instance when the pool is
+     * exhausted. Default is 30 seconds.
+     *
+     * @param maxWait the maximum wait
+     * @param unit    the unit of the maximum wait
+     */
+    public void setMaxWait(long maxWait, TimeUnit unit) {
+        if (maxWait < 0) {
+            throw new IciqlException("Invalid maximum wait {0}", maxWait);
+        }
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    /**
+     * Sets the time after which an idle instance is closed by the evictor. A
+     * value of 0 keeps idle instances open. Default is 10 minutes.
+     *
+     * @param idleTimeout the idle timeout
+     * @param unit        the unit of the idle timeout
+     */
+    public void setIdleTimeout(long idleTimeout, TimeUnit unit) {
+        if (idleTimeout < 0) {
+            throw new IciqlException("Invalid idle timeout {0}", idleTimeout);
+        }
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+    }
+
+    /**
+     * Sets the idle time after which the connection of an instance is
+     * validated with Connection.isValid() before it is leased. A value of 0
+     * validates on every lease. Default is 5 seconds.
+     *
+     * @param interval the validation interval
+     * @param unit     the unit of the validation interval
+     */
+    public void setValidationInterval(long interval, TimeUnit unit) {
+        if (interval < 0) {
+            throw new IciqlException("Invalid validation interval {0}", interval);
+        }
+        this.validationIntervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Sets the timeout in seconds of a connection validation. Default is 5.
+     *
+     * @param seconds the validation timeout
+     */
+    public void setValidationTimeout(int seconds) {
+        if (seconds < 0) {
+            throw new IciqlException("Invalid validation timeout {0}", seconds);
+        }
+        this.validationTimeout = seconds;
+    }
+
+    /**
+     * Sets the prepared statement cache size of the pooled Db instances. The
+     * cached statements are kept across leases. Default is 0, no cache.
+     *
+     * @param size the maximum number of cached statements per instance
+     * @see Db#setStatementCacheSize(int)
+     */
+    public void setStatementCacheSize(int size) {
+        if (size < 0) {
+            throw new IciqlException("Invalid statement cache size {0}", size);
+        }
+        this.statementCacheSize = size;
+    }
+
+    /**
+     * Leases a Db from the pool. Close the Db to return it.
+     *
+     * @return a pooled Db
+     */
+    public Db open() {
+        if (!started) {
+            start();
+        }
+        long deadline = 0;
+        while (true) {
+            if (closed) {
+                throw new IciqlException("The pool is closed");
+            }
+            Entry entry = pop();
+            if (entry != null) {
+                if (validate(entry)) {
+                    return lease(entry);
+                }
+                invalid.incrementAndGet();
+                destroy(entry);
+                continue;
+            }
+            int n = size.get();
+            if (n < maxSize) {
+                if (size.compareAndSet(n, n + 1)) {
+                    return lease(create());
+                }
+                continue;
+            }
+            // exhausted
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + maxWaitNanos;
+                waits.incrementAndGet();
+            }
+            if (now - deadline >= 0) {
+                timeouts.incrementAndGet();
+                throw new IciqlException("Timed out after {0} ms waiting for a pooled Db, {1} of {2} leased",
+                        TimeUnit.NANOSECONDS.toMillis(maxWaitNanos), size.get() - idleCount.get(), maxSize);
+            }
+            await(deadline - now);
+            waitNanos.addAndGet(System.nanoTime() - now);
+        }
+    }
+
+    /**
+     * Closes the idle instances and stops the evictor. Leased instances are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            if (eviction != null) {
+                eviction.cancel(false);
+                eviction = null;
+            }
+        }
+        drain();
+        signal(true);
+    }
+
+    /**
+     * Returns the number of open instances, leased and idle.
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of idle instances.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Returns the number of leased instances.
+     */
+    public int getLeasedCount() {
+        return Math.max(0, size.get() - idleCount.get());
+    }
+
+    /**
+     * Returns the number of leases since the pool was created.
+     */
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    /**
+     * Returns the number of leases which waited for an instance.
+     */
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    /**
+     * Returns the total time in milliseconds spent waiting for an instance.
+     */
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    /**
+     * Returns the number of leases which timed out waiting for an instance.
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * Returns the number of instances opened by the pool.
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of instances closed by the pool.
+     */
+    public long getDestroyedCount() {
+        return destroyed.get();
+    }
+
+    /**
+     * Returns the number of idle instances closed by the evictor.
+     */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * Returns the number of instances which failed validation.
+     */
+    public long getInvalidCount() {
+        return invalid.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DbPool[" + (url == null ? dataSource : url) + ", size=" + size.get() + ", idle="
+                + idleCount.get() + "]";
+    }
+
+    /**
+     * Opens the minimum idle instances and schedules the evictor.
+     */
+    private synchronized void start() {
+        if (started) {
+            return;
+        }
+        fill();
+        long interval = Math.min(Math.max(idleTimeoutNanos, MIN_EVICTION_INTERVAL), MAX_EVICTION_INTERVAL);
+        eviction = getEvictor().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evict();
+            }
+        }, interval, interval, TimeUnit.NANOSECONDS);
+        started = true;
+    }
+
+    private static synchronized ScheduledExecutorService getEvictor() {
+        if (evictor == null) {
+            evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "iciql-pool-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return evictor;
+    }
+
+    /**
+     * Opens a new instance. The caller has already counted it in the size.
+     */
+    private Entry create() {
+        Connection conn = null;
+        try {
+            if (dataSource == null) {
+                conn = JdbcUtils.getConnection(null, url, user, password);
+            } else {
+                conn = dataSource.getConnection();
+            }
+            Db db = Db.open(conn, mode);
+            if (statementCacheSize > 0) {
+                db.setStatementCacheSize(statementCacheSize);
+            }
+            Entry entry = new Entry(this, db);
+            db.setPoolEntry(entry);
+            created.incrementAndGet();
+            return entry;
+        } catch (SQLException e) {
+            size.decrementAndGet();
+            signal(false);
+            throw new IciqlException(e);
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+            signal(false);
+            JdbcUtils.closeSilently(conn);
+            throw e;
+        }
+    }
+
+    private Db lease(Entry entry) {
+        // a popped entry is already claimed
+        entry.leased.set(true);
+        leases.incrementAndGet();
+        return entry.db;
+    }
+
+    /**
+     * Returns a leased instance to the pool. Called by Db.close().
+     */
+    void release(Entry entry) {
+        if (!entry.leased.compareAndSet(true, false)) {
+            // already returned
+            return;
+        }
+        if (closed || !reset(entry.db)) {
+            destroy(entry);
+            return;
+        }
+        entry.lastUsed = System.nanoTime();
+        push(entry);
+        if (closed) {
+            // the pool was closed concurrently
+            drain();
+        }
+        signal(false);
+    }
+
+    /**
+     * Restores the auto-commit mode of a returned instance and rolls back the
+     * transaction it left open.
+     */
+    private boolean reset(Db db) {
+        try {
+            Connection conn = db.getConnection();
+            if (conn.isClosed()) {
+                return false;
+            }
+            if (db.getTransaction() != null) {
+                db.getTransaction().rollback();
+            }
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            IciqlLogger.warn("Failed to reset pooled connection: {0}", e.getMessage());
+            return false;
+        } catch (IciqlException e) {
+            IciqlLogger.warn("Failed to reset pooled connection: {0}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean validate(Entry entry) {
+        if (System.nanoTime() - entry.lastUsed < validationIntervalNanos) {
+            return true;
+        }
+        try {
+            return entry.db.getConnection().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(Entry entry) {
+        size.decrementAndGet();
+        destroyed.incrementAndGet();
+        try {
+            entry.db.closeConnection();
+        } catch (IciqlException e) {
+            IciqlLogger.warn("Failed to close pooled connection: {0}", e.getMessage());
+        }
+        signal(false);
+    }
+
+    /**
+     * Closes the idle instances which exceeded the idle timeout, oldest first,
+     * and opens instances up to the minimum idle count. Expired instances are
+     * claimed in place and their nodes are unlinked, the stack is not drained.
+     */
+    private void evict() {
+        if (closed) {
+            return;
+        }
+        // the stack is ordered from the most to the least recently used
+        List<Node> nodes = Utils.newArrayList();
+        for (Node node = idle.get(); node != null; node = node.next) {
+            if (!node.entry.leased.get()) {
+                nodes.add(node);
+            }
+        }
+        long now = System.nanoTime();
+        int excess = Math.max(0, nodes.size() - minIdle);
+        for (int i = nodes.size() - 1; i >= 0 && excess > 0 && idleTimeoutNanos > 0; i--) {
+            Node node = nodes.get(i);
+            Entry entry = node.entry;
+            if (now - entry.lastUsed > idleTimeoutNanos && entry.leased.compareAndSet(false, true)) {
+                entry.evicted = true;
+                idleCount.decrementAndGet();
+                excess--;
+                evicted.incrementAndGet();
+                destroy(entry);
+            }
+        }
+        unlinkEvicted();
+        if (closed) {
+            drain();
+            return;
+        }
+        try {
+            fill();
+        } catch (IciqlException e) {
+            IciqlLogger.warn("Failed to open pooled connection: {0}", e.getMessage());
+        }
+        signal(false);
+    }
+
+    /**
+     * Unlinks evicted nodes below the top of the stack. A concurrent pop()
+     * may still reach an unlinked node, which it skips.
+     */
+    private void unlinkEvicted() {
+        Node prev = idle.get();
+        if (prev == null) {
+            return;
+        }
+        Node node = prev.next;
+        while (node != null) {
+            if (node.entry.evicted) {
+                prev.next = node.next;
+            } else {
+                prev = node;
+            }
+            node = node.next;
+        }
+    }
+
+    /**
+     * Opens idle instances up to the minimum idle count, while the pool holds
+     * fewer than the minimum idle count.
+     */
+    private void fill() {
+        while (idleCount.get() < minIdle) {
+            int n = size.get();
+            if (n >= minIdle || n >= maxSize) {
+                return;
+            }
+            if (size.compareAndSet(n, n + 1)) {
+                push(create());
+            }
+        }
+    }
+
+    private void drain() {
+        Entry entry;
+        while ((entry = pop()) != null) {
+            destroy(entry);
+        }
+    }
+
+    private void push(Entry entry) {
+        Node node = new Node(entry);
+        do {
+            node.next = idle.get();
+        } while (!idle.compareAndSet(node.next, node));
+        idleCount.incrementAndGet();
+    }
+
+    private Entry pop() {
+        while (true) {
+            Node node = idle.get();
+            if (node == null) {
+                return null;
+            }
+            if (idle.compareAndSet(node, node.next) && node.entry.leased.compareAndSet(false, true)) {
+                // not claimed by the evictor
+                idleCount.decrementAndGet();
+                return node.entry;
+            }
+        }
+    }
+
+    /**
+     * Waits until an instance is returned or destroyed.
+     */
+    private void await(long nanos) {
+        synchronized (lock) {
+            waiters++;
+            try {
+                // an instance may have been returned before waiters was incremented
+                if (idle.get() == null && size.get() >= maxSize && !closed) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IciqlException(e, "Interrupted while waiting for a pooled Db");
+            } finally {
+                waiters--;
+            }
+        }
+    }
+
+    private void signal(boolean all) {
+        if (waiters > 0) {
+            synchronized (lock) {
+                if (all) {
+                    lock.notifyAll();
+                } else {
+                    lock.notify();
+                }
+            }
+        }
+    }
+}
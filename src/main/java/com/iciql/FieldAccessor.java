@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+/**
+ * Reads and writes the value of a mapped model field.
+ * <p>
+ * The accessor of each field is chosen once when the model is mapped so that
+ * reading and hydrating rows does not repeat the accessibility and type checks
+ * of java.lang.reflect.Field for every cell.
+ *
+ * @see FieldAccessors
+ */
+interface FieldAccessor {
+
+    /**
+     * Returns the value of the field of the object.
+     *
+     * @param obj the model object
+     * @return the field value, primitives are boxed
+     */
+    Object get(Object obj);
+
+    /**
+     * Sets the value of the field of the object. A null value is ignored for
+     * primitive fields.
+     *
+     * @param obj   the model object
+     * @param value the field value
+     */
+    void set(Object obj, Object value);
+}
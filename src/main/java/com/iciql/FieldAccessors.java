@@ -0,0 +1,191 @@
+/*
+ * Copyright 2004-2011 H2 Group.
+ * Copyright 2011 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import java.lang.reflect.Field;
+
+/**
+ * Creates the field accessors of mapped model fields.
+ * <p>
+ * The accessors are based on reflection: the field is made accessible once
+ * and the common primitive types are written with the typed setters of Field
+ * to skip its generic unboxing conversion.
+ */
+final class FieldAccessors {
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * Creates the accessor of a field.
+     *
+     * @param field the model field
+     * @return the accessor
+     */
+    static FieldAccessor create(Field field) {
+        if (!field.isAccessible()) {
+            field.setAccessible(true);
+        }
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()) {
+            return new ObjectAccessor(field);
+        } else if (int.class == type) {
+            return new IntAccessor(field);
+        } else if (long.class == type) {
+            return new LongAccessor(field);
+        } else if (double.class == type) {
+            return new DoubleAccessor(field);
+        } else if (boolean.class == type) {
+            return new BooleanAccessor(field);
+        }
+        return new PrimitiveAccessor(field);
+    }
+
+    private static IciqlException error(Field field, Exception e) {
+        return new IciqlException(e, "failed to access field {0}.{1}", field.getDeclaringClass().getName(),
+                field.getName());
+    }
+
+    /**
+     * Reference field.
+     */
+    private static class ObjectAccessor implements FieldAccessor {
+
+        final Field field;
+
+        ObjectAccessor(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object get(Object obj) {
+            try {
+                return field.get(obj);
+            } catch (Exception e) {
+                throw error(field, e);
+            }
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            try {
+                field.set(obj, value);
+            } catch (Exception e) {
+                throw error(field, e);
+            }
+        }
+    }
+
+    /**
+     * Primitive field which ignores null values.
+     */
+    private static class PrimitiveAccessor extends ObjectAccessor {
+
+        PrimitiveAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            if (value != null) {
+                // do not attempt to set a primitive to null
+                super.set(obj, value);
+            }
+        }
+    }
+
+    private static class IntAccessor extends PrimitiveAccessor {
+
+        IntAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            if (value instanceof Integer) {
+                try {
+                    field.setInt(obj, (Integer) value);
+                } catch (Exception e) {
+                    throw error(field, e);
+                }
+            } else {
+                super.set(obj, value);
+            }
+        }
+    }
+
+    private static class LongAccessor extends PrimitiveAccessor {
+
+        LongAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            if (value instanceof Long) {
+                try {
+                    field.setLong(obj, (Long) value);
+                } catch (Exception e) {
+                    throw error(field, e);
+                }
+            } else {
+                super.set(obj, value);
+            }
+        }
+    }
+
+    private static class DoubleAccessor extends PrimitiveAccessor {
+
+        DoubleAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            if (value instanceof Double) {
+                try {
+                    field.setDouble(obj, (Double) value);
+                } catch (Exception e) {
+                    throw error(field, e);
+                }
+            } else {
+                super.set(obj, value);
+            }
+        }
+    }
+
+    private static class BooleanAccessor extends PrimitiveAccessor {
+
+        BooleanAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public void set(Object obj, Object value) {
+            if (value instanceof Boolean) {
+                try {
+                    field.setBoolean(obj, (Boolean) value);
+                } catch (Exception e) {
+                    throw error(field, e);
+                }
+            } else {
+                super.set(obj, value);
+            }
+        }
+    }
+}
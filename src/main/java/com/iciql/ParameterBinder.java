@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a statement parameter with the setter of PreparedStatement that
+ * matches its type.
+ *
+ * @see ParameterBinders
+ */
+interface ParameterBinder {
+
+    /**
+     * Binds the value to the parameter.
+     *
+     * @param prep  the prepared statement
+     * @param index the parameter index, starting at 1
+     * @param value the value, may be null
+     * @throws SQLException
+     */
+    void bind(PreparedStatement prep, int index, Object value) throws SQLException;
+}
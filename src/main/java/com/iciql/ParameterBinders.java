@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.Iciql.EnumType;
+import com.iciql.TableDefinition.FieldDefinition;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates the parameter binders of field values and of ad-hoc values.
+ * <p>
+ * A binder calls the typed setter of its Java type and binds null with
+ * setNull and the SQL type of the field. Values of another type and nulls of
+ * an unknown SQL type are bound with setObject.
+ */
+final class ParameterBinders {
+
+    /**
+     * Binds values with setObject.
+     */
+    static final ParameterBinder OBJECT = new ParameterBinder() {
+        @Override
+        public void bind(PreparedStatement prep, int index, Object value) throws SQLException {
+            prep.setObject(index, value);
+        }
+    };
+
+    private static final Map<Class<?>, TypedBinder> BINDERS = new HashMap<Class<?>, TypedBinder>();
+
+    static {
+        Map<Class<?>, TypedBinder> m = BINDERS;
+        // a String may be mapped to a uuid, json or other non-character
+        // column, so its nulls are bound without an SQL type
+        m.put(String.class, new TypedBinder(String.class, Types.NULL) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setString(index, (String) value);
+            }
+        });
+        m.put(Integer.class, new TypedBinder(Integer.class, Types.INTEGER) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setInt(index, (Integer) value);
+            }
+        });
+        m.put(Long.class, new TypedBinder(Long.class, Types.BIGINT) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setLong(index, (Long) value);
+            }
+        });
+        m.put(Short.class, new TypedBinder(Short.class, Types.SMALLINT) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setShort(index, (Short) value);
+            }
+        });
+        m.put(Double.class, new TypedBinder(Double.class, Types.DOUBLE) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setDouble(index, (Double) value);
+            }
+        });
+        m.put(Float.class, new TypedBinder(Float.class, Types.REAL) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setFloat(index, (Float) value);
+            }
+        });
+        m.put(BigDecimal.class, new TypedBinder(BigDecimal.class, Types.DECIMAL) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setBigDecimal(index, (BigDecimal) value);
+            }
+        });
+        m.put(Timestamp.class, new TypedBinder(Timestamp.class, Types.TIMESTAMP) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setTimestamp(index, (Timestamp) value);
+            }
+        });
+        m.put(java.sql.Date.class, new TypedBinder(java.sql.Date.class, Types.DATE) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setDate(index, (java.sql.Date) value);
+            }
+        });
+        m.put(Time.class, new TypedBinder(Time.class, Types.TIME) {
+            @Override
+            void set(PreparedStatement prep, int index, Object value) throws SQLException {
+                prep.setTime(index, (Time) value);
+            }
+        });
+        // java.util.Date values are bound as Timestamps if the dialect
+        // requires them, see SQLStatement
+        m.put(java.util.Date.class, m.get(Timestamp.class));
+        m.put(int.class, m.get(Integer.class));
+        m.put(long.class, m.get(Long.class));
+        m.put(short.class, m.get(Short.class));
+        m.put(double.class, m.get(Double.class));
+        m.put(float.class, m.get(Float.class));
+    }
+
+    private ParameterBinders() {
+    }
+
+    /**
+     * Returns the binder of the values of a field.
+     *
+     * @param field the field definition
+     * @return the binder
+     */
+    static ParameterBinder forField(FieldDefinition field) {
+        if (field.typeAdapter != null) {
+            // the adapter decides the JDBC type
+            return OBJECT;
+        }
+        Class<?> type = field.field.getType();
+        if (type.isEnum()) {
+            if (field.enumType == EnumType.ORDINAL) {
+                type = Integer.class;
+            } else if (field.enumType == EnumType.ENUMID) {
+                type = field.enumTypeClass;
+            } else {
+                type = String.class;
+            }
+        }
+        ParameterBinder binder = type == null ? null : BINDERS.get(type);
+        return binder == null ? OBJECT : binder;
+    }
+
+    /**
+     * Returns the binder of a value which is not bound to a field.
+     *
+     * @param value the value
+     * @return the binder
+     */
+    static ParameterBinder forValue(Object value) {
+        if (value == null) {
+            return OBJECT;
+        }
+        ParameterBinder binder = BINDERS.get(value.getClass());
+        return binder == null ? OBJECT : binder;
+    }
+
+    /**
+     * Binds values of one Java type with its typed setter.
+     */
+    private abstract static class TypedBinder implements ParameterBinder {
+
+        private final Class<?> type;
+        // Types.NULL binds nulls with setObject
+        private final int sqlType;
+
+        TypedBinder(Class<?> type, int sqlType) {
+            this.type = type;
+            this.sqlType = sqlType;
+        }
+
+        @Override
+        public void bind(PreparedStatement prep, int index, Object value) throws SQLException {
+            if (value == null && sqlType == Types.NULL) {
+                prep.setObject(index, null);
+            } else if (value == null) {
+                prep.setNull(index, sqlType);
+            } else if (value.getClass() == type) {
+                set(prep, index, value);
+            } else {
+                prep.setObject(index, value);
+            }
+        }
+
+        abstract void set(PreparedStatement prep, int index, Object value) throws SQLException;
+    }
+}
@@ -22,10 +22,11 @@ import com.iciql.Iciql.EnumType;
 import com.iciql.NestedConditions.And;
 import com.iciql.NestedConditions.Or;
 import com.iciql.bytecode.ClassReader;
+import com.iciql.util.ConcurrentWeakIdentityHashMap;
 import com.iciql.util.IciqlLogger;
-import com.iciql.util.JdbcUtils;
 import com.iciql.util.Utils;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents a query.
@@ -44,6 +46,14 @@ import java.util.List;
 
 public class Query<T> {
 
+    /**
+     * The declared fields of filter classes, cached for repeated filters. A
+     * Field references its class, so the fields are held weakly to let the
+     * weak key of an unloaded class be collected.
+     */
+    private static final Map<Class<?>, WeakReference<Field[]>> FILTER_FIELDS =
+            new ConcurrentWeakIdentityHashMap<Class<?>, WeakReference<Field[]>>();
+
     private Db db;
     private SelectTable<T> from;
     private ArrayList<Token> conditions = Utils.newArrayList();
@@ -55,9 +65,12 @@ public class Query<T> {
     private ArrayList<Object> groupByExpressions = Utils.newArrayList();
     private long limit;
     private long offset;
+    private int fetchSize;
+    private long maxRows;
 
     private Query(Db db) {
         this.db = db;
+        this.fetchSize = db.getDefaultFetchSize();
     }
 
     /**
@@ -97,7 +110,7 @@ public class Query<T> {
         } catch (SQLException e) {
             throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            db.closeSilently(rs);
         }
     }
 
@@ -146,7 +159,7 @@ public class Query<T> {
         } catch (Exception e) {
             throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            db.closeSilently(rs);
         }
         return list;
     }
@@ -289,35 +302,80 @@ public class Query<T> {
 
     private List<T> select(boolean distinct) {
         List<T> result = Utils.newArrayList();
+        QueryCursor<T> cursor = iterate(distinct);
+        try {
+            while (cursor.hasNext()) {
+                result.add(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+        return result;
+    }
+
+    /**
+     * Executes the query and returns a cursor that reads the rows as it is
+     * iterated. The cursor must be closed unless it is iterated to the end.
+     *
+     * @return a cursor over the query result
+     */
+    public QueryCursor<T> iterate() {
+        return iterate(false);
+    }
+
+    /**
+     * Compiles the query into an immutable, thread-safe CompiledQuery. Values
+     * of conditions declared with isParameter(), atLeastParameter(), etc. are
+     * supplied when the compiled query is executed.
+     *
+     * @return the compiled query
+     */
+    public CompiledQuery<T> compile() {
         TableDefinition<T> def = from.getAliasDefinition();
-        SQLStatement stat = getSelectStatement(distinct);
+        SQLStatement stat = getSelectStatement(false);
         if (isJoin()) {
             def.appendSelectList(stat, from.getAs());
         } else {
             def.appendSelectList(stat);
         }
         appendFromWhere(stat);
-        ResultSet rs = stat.executeQuery();
+        return new CompiledQuery<T>(db, stat, def);
+    }
+
+    /**
+     * Executes the query and passes each row to the handler without holding
+     * the result in memory.
+     *
+     * @param handler the row handler
+     */
+    public void forEach(RowHandler<T> handler) {
+        QueryCursor<T> cursor = iterate(false);
         try {
-            // SQLite returns pre-closed ResultSets for query results with 0 rows
-            if (!rs.isClosed()) {
-                int[] columns = def.mapColumns(db.getDialect(), false, rs);
-                while (rs.next()) {
-                    T item = from.newObject();
-                    def.readRow(db.getDialect(), item, rs, columns);
-                    result.add(item);
-                }
+            while (cursor.hasNext()) {
+                handler.handle(cursor.next());
             }
-        } catch (SQLException e) {
-            throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            cursor.close();
         }
-        return result;
+    }
+
+    private QueryCursor<T> iterate(boolean distinct) {
+        TableDefinition<T> def = from.getAliasDefinition();
+        SQLStatement stat = getSelectStatement(distinct);
+        if (isJoin()) {
+            def.appendSelectList(stat, from.getAs());
+        } else {
+            def.appendSelectList(stat);
+        }
+        appendFromWhere(stat);
+        stat.setMapped(true);
+        ResultSet rs = stat.executeQuery();
+        return new QueryCursor<T>(db, stat, rs, def, def.getModelClass(), false, null);
     }
 
     public int delete() {
         SQLStatement stat = new SQLStatement(db);
+        stat.setModelClass(from.getAliasDefinition().getModelClass());
         stat.appendSQL("DELETE FROM ");
         from.appendSQL(stat);
         appendWhere(stat);
@@ -414,6 +472,7 @@ public class Query<T> {
             throw new IciqlException("Missing set or increment call.");
         }
         SQLStatement stat = new SQLStatement(db);
+        stat.setModelClass(from.getAliasDefinition().getModelClass());
         stat.appendSQL("UPDATE ");
         from.appendSQL(stat);
         stat.appendSQL(" SET ");
@@ -483,7 +542,7 @@ public class Query<T> {
         } catch (SQLException e) {
             throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            db.closeSilently(rs);
         }
         return result;
     }
@@ -506,7 +565,7 @@ public class Query<T> {
         } catch (Exception e) {
             throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            db.closeSilently(rs);
         }
         return result;
     }
@@ -530,13 +589,16 @@ public class Query<T> {
         } catch (Exception e) {
             throw IciqlException.fromSQL(stat.getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(rs, true);
+            db.closeSilently(rs);
         }
         return result;
     }
 
     private SQLStatement getSelectStatement(boolean distinct) {
         SQLStatement stat = new SQLStatement(db);
+        stat.setModelClass(from.getAliasDefinition().getModelClass());
+        stat.setFetchSize(fetchSize);
+        stat.setMaxRows(maxRows);
         stat.appendSQL("SELECT ");
         if (distinct) {
             stat.appendSQL("DISTINCT ");
@@ -643,8 +705,7 @@ public class Query<T> {
 
     public <A> QueryWhere<T> where(Filter filter) {
         HashMap<String, Object> fieldMap = Utils.newHashMap();
-        for (Field f : filter.getClass().getDeclaredFields()) {
-            f.setAccessible(true);
+        for (Field f : getFilterFields(filter.getClass())) {
             try {
                 Object obj = f.get(filter);
                 if (obj == from.getAlias()) {
@@ -652,11 +713,11 @@ public class Query<T> {
                     String name = f.getName();
                     for (TableDefinition.FieldDefinition field : fields) {
                         String n = name + "." + field.field.getName();
-                        Object o = field.field.get(obj);
+                        Object o = field.getValue(obj);
                         fieldMap.put(n, o);
                     }
                 }
-                fieldMap.put(f.getName(), f.get(filter));
+                fieldMap.put(f.getName(), obj);
             } catch (Exception e) {
                 throw new IciqlException(e);
             }
@@ -667,6 +728,22 @@ public class Query<T> {
         return new QueryWhere<T>(this);
     }
 
+    /**
+     * Returns the accessible declared fields of a filter class.
+     */
+    private static Field[] getFilterFields(Class<?> filterClass) {
+        WeakReference<Field[]> ref = FILTER_FIELDS.get(filterClass);
+        Field[] fields = ref == null ? null : ref.get();
+        if (fields == null) {
+            fields = filterClass.getDeclaredFields();
+            for (Field f : fields) {
+                f.setAccessible(true);
+            }
+            FILTER_FIELDS.put(filterClass, new WeakReference<Field[]>(fields));
+        }
+        return fields;
+    }
+
     /**
      * Begin an string field condition clause explicitly defined for interop clarity.
      *
@@ -728,6 +805,34 @@ public class Query<T> {
         return this;
     }
 
+    /**
+     * Sets the number of rows the driver should fetch per round trip. A value
+     * of 0 uses the driver default. The default is the fetch size of the Db.
+     * <p>
+     * PostgreSQL only honors the fetch size inside a transaction. In
+     * auto-commit mode the fetch size is ignored with a warning and the entire
+     * result is read into memory.
+     *
+     * @param fetchSize the fetch size hint
+     * @return the query
+     */
+    public Query<T> fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of rows the driver returns. Unlike limit() this
+     * is not part of the SQL statement. A value of 0 does not limit the rows.
+     *
+     * @param maxRows the maximum number of rows
+     * @return the query
+     */
+    public Query<T> maxRows(long maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
     public Query<T> orderBy(boolean field) {
         from.getAliasDefinition().checkMultipleBooleans();
         return orderByPrimitive(field);
@@ -956,13 +1061,18 @@ public class Query<T> {
 
     private void addParameter(SQLStatement stat, Object alias, Object value) {
         SelectColumn<T> col = getColumnByReference(alias);
+        if (RuntimeParameter.PARAMETER == value) {
+            // bound when a compiled query is executed
+            stat.addRuntimeParameter(col == null ? null : col.getFieldDefinition());
+            return;
+        }
         if (col != null && value != null && value.getClass().isEnum()) {
             // enum
             TableDefinition.FieldDefinition field = col.getFieldDefinition();
             EnumType type = field.enumType;
             Enum<?> anEnum = (Enum<?>) value;
             Object y = Utils.convertEnum(anEnum, type);
-            stat.addParameter(y);
+            stat.addParameter(y, field);
         } else if (col != null) {
             // object
             TableDefinition.FieldDefinition field = col.getFieldDefinition();
@@ -977,7 +1087,7 @@ public class Query<T> {
                 }
             }
             Object parameter = db.getDialect().serialize(value, typeAdapter);
-            stat.addParameter(parameter);
+            stat.addParameter(parameter, field);
         } else {
             // primitive
             stat.addParameter(value);
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.util.Utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A forward-only cursor over the rows of a query. Rows are read from the
+ * ResultSet as the cursor advances so the result is never held in memory.
+ * <p>
+ * The ResultSet and its statement are released after the last row or when the
+ * cursor is closed. A cursor may only be iterated once.
+ *
+ * @param <T> the model class
+ */
+public class QueryCursor<T> implements Iterator<T>, Iterable<T>, AutoCloseable {
+
+    private final Db db;
+    private final SQLStatement stat;
+    private final String sql;
+    private final TableDefinition<T> def;
+    private final Class<? extends T> clazz;
+    private ResultSet rs;
+    private int[] columns;
+    private T next;
+    private final boolean timed;
+    private long mappingNanos;
+    private long rows;
+
+    QueryCursor(Db db, String sql, ResultSet rs, TableDefinition<T> def, Class<? extends T> clazz,
+                boolean wildcardSelect) {
+        this(db, null, sql, rs, def, clazz, wildcardSelect, null);
+    }
+
+    /**
+     * @param stat    the executed query
+     * @param columns the precomputed column mapping or null to map the columns
+     *                of the ResultSet
+     */
+    QueryCursor(Db db, SQLStatement stat, ResultSet rs, TableDefinition<T> def, Class<? extends T> clazz,
+                boolean wildcardSelect, int[] columns) {
+        this(db, stat, stat.getSQL(), rs, def, clazz, wildcardSelect, columns);
+    }
+
+    private QueryCursor(Db db, SQLStatement stat, String sql, ResultSet rs, TableDefinition<T> def,
+                        Class<? extends T> clazz, boolean wildcardSelect, int[] columns) {
+        this.db = db;
+        this.stat = stat;
+        this.sql = sql;
+        this.def = def;
+        this.clazz = clazz;
+        this.rs = rs;
+        this.columns = columns;
+        this.timed = stat != null && stat.isTimed();
+        try {
+            // SQLite returns pre-closed ResultSets for query results with 0 rows
+            if (rs.isClosed()) {
+                close();
+            } else if (columns == null) {
+                this.columns = def.mapColumns(db.getDialect(), wildcardSelect, rs);
+            }
+        } catch (SQLException e) {
+            close();
+            throw error(e);
+        } catch (IciqlException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (rs == null) {
+            return false;
+        }
+        long start = timed ? System.nanoTime() : 0;
+        try {
+            if (rs.next()) {
+                T item = Utils.newObject(clazz);
+                def.readRow(db.getDialect(), item, rs, columns);
+                next = item;
+                rows++;
+                if (timed) {
+                    mappingNanos += System.nanoTime() - start;
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            close();
+            throw error(e);
+        } catch (IciqlException e) {
+            close();
+            throw e;
+        }
+        // last row, release the ResultSet
+        close();
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private IciqlException error(SQLException e) {
+        if (sql == null) {
+            return new IciqlException(e);
+        }
+        return IciqlException.fromSQL(sql, e);
+    }
+
+    /**
+     * Releases the ResultSet and its statement. Closing a cursor more than
+     * once has no effect.
+     */
+    @Override
+    public void close() {
+        if (rs != null) {
+            db.closeSilently(rs);
+            rs = null;
+            if (timed) {
+                stat.mapped(mappingNanos, rows);
+            }
+        }
+    }
+}
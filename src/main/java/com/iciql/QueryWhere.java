@@ -265,6 +265,16 @@ public class QueryWhere<T> {
         return this;
     }
 
+    public QueryWhere<T> fetchSize(int fetchSize) {
+        query.fetchSize(fetchSize);
+        return this;
+    }
+
+    public QueryWhere<T> maxRows(long maxRows) {
+        query.maxRows(maxRows);
+        return this;
+    }
+
     public String getSQL() {
         SQLStatement stat = new SQLStatement(query.getDb());
         stat.appendSQL("SELECT *");
@@ -374,6 +384,18 @@ public class QueryWhere<T> {
         return query.selectDistinct();
     }
 
+    public QueryCursor<T> iterate() {
+        return query.iterate();
+    }
+
+    public CompiledQuery<T> compile() {
+        return query.compile();
+    }
+
+    public void forEach(RowHandler<T> handler) {
+        query.forEach(handler);
+    }
+
     public void createView(Class<?> viewClass) {
         query.createView(viewClass);
     }
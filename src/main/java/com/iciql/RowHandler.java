@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+/**
+ * Receives the rows of a query one at a time.
+ *
+ * @param <T> the model class
+ * @see Query#forEach(RowHandler)
+ */
+public interface RowHandler<T> {
+
+    /**
+     * Handles a row of a query result.
+     *
+     * @param row the row object
+     */
+    void handle(T row);
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2004-2011 H2 Group.
+ * Copyright 2011 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.TableDefinition.FieldDefinition;
+import com.iciql.util.EnumLookup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads the columns of a result set row into the fields of a model object.
+ * <p>
+ * The column readers are chosen once per model. int, long, double and String
+ * fields without a type adapter are read with the typed getters of ResultSet.
+ * Enums are resolved with the precomputed lookup tables of their class. Fields
+ * with a type adapter and all other types are read through the deserialization
+ * of the dialect.
+ *
+ * @param <T> the model class
+ */
+final class RowMapper<T> {
+
+    private final FieldDefinition[] fields;
+    private final ColumnReader[] readers;
+
+    RowMapper(List<FieldDefinition> fieldDefinitions) {
+        int count = fieldDefinitions.size();
+        fields = fieldDefinitions.toArray(new FieldDefinition[count]);
+        readers = new ColumnReader[count];
+        for (int i = 0; i < count; i++) {
+            readers[i] = createReader(fields[i]);
+        }
+    }
+
+    /**
+     * Reads the row at the current position of the result set into the item.
+     *
+     * @param dialect the dialect
+     * @param item    the model object
+     * @param rs      the result set
+     * @param columns the result set column index of each field
+     */
+    void readRow(SQLDialect dialect, Object item, ResultSet rs, int[] columns) {
+        for (int i = 0; i < readers.length; i++) {
+            FieldDefinition field = fields[i];
+            Object o;
+            try {
+                o = readers[i].read(dialect, field, rs, columns[i]);
+            } catch (SQLException e) {
+                throw new IciqlException(e, "Can not convert the value at column {0} to {1}", columns[i],
+                        field.field.getType().getName());
+            }
+            field.accessor.set(item, o);
+        }
+    }
+
+    private static ColumnReader createReader(FieldDefinition field) {
+        Class<?> type = field.field.getType();
+        if (type.isEnum()) {
+            return new EnumReader(EnumLookup.of(type));
+        } else if (field.typeAdapter != null) {
+            return DESERIALIZE;
+        } else if (int.class == type || Integer.class == type) {
+            return INT;
+        } else if (long.class == type || Long.class == type) {
+            return LONG;
+        } else if (double.class == type || Double.class == type) {
+            return DOUBLE;
+        } else if (String.class == type) {
+            return STRING;
+        }
+        return DESERIALIZE;
+    }
+
+    /**
+     * Reads a column value. A null value is returned for SQL NULL.
+     */
+    private interface ColumnReader {
+        Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column) throws SQLException;
+    }
+
+    private static class EnumReader implements ColumnReader {
+
+        private final EnumLookup lookup;
+
+        EnumReader(EnumLookup lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column)
+                throws SQLException {
+            return lookup.convert(rs.getObject(column), field.enumType);
+        }
+    }
+
+    private static final ColumnReader DESERIALIZE = new ColumnReader() {
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column) {
+            return dialect.deserialize(rs, column, field.field.getType(), field.typeAdapter);
+        }
+    };
+
+    private static final ColumnReader INT = new ColumnReader() {
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column)
+                throws SQLException {
+            int value = rs.getInt(column);
+            return rs.wasNull() ? null : Integer.valueOf(value);
+        }
+    };
+
+    private static final ColumnReader LONG = new ColumnReader() {
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column)
+                throws SQLException {
+            long value = rs.getLong(column);
+            return rs.wasNull() ? null : Long.valueOf(value);
+        }
+    };
+
+    private static final ColumnReader DOUBLE = new ColumnReader() {
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column)
+                throws SQLException {
+            double value = rs.getDouble(column);
+            return rs.wasNull() ? null : Double.valueOf(value);
+        }
+    };
+
+    private static final ColumnReader STRING = new ColumnReader() {
+        @Override
+        public Object read(SQLDialect dialect, FieldDefinition field, ResultSet rs, int column)
+                throws SQLException {
+            return rs.getString(column);
+        }
+    };
+}
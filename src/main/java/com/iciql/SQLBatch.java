@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.util.JdbcUtils;
+import com.iciql.util.Utils;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes a sequence of row statements as JDBC batches.
+ * <p>
+ * Consecutive statements that share the same SQL are bound to one prepared
+ * statement with addBatch() and flushed with executeBatch() when the batch
+ * size is reached or when the SQL changes. The row order is preserved.
+ * <p>
+ * A batch size of 1 or less executes each statement individually.
+ * <p>
+ * If generated keys are requested they are collected in row order.
+ */
+class SQLBatch {
+
+    private final Db db;
+    private final String operation;
+    private final int batchSize;
+    private final boolean requireUpdateCount;
+    private final boolean returnGeneratedKeys;
+    private final ArrayList<Object> rows = Utils.newArrayList();
+    private final List<Long> generatedKeys = Utils.newArrayList();
+    private String sql;
+    private PreparedStatement prep;
+
+    /**
+     * @param db                 the database
+     * @param operation          the operation name for error messages (e.g. insert)
+     * @param batchSize          the maximum number of rows per executeBatch()
+     * @param requireUpdateCount if true, a row with an update count of 0 fails
+     */
+    SQLBatch(Db db, String operation, int batchSize, boolean requireUpdateCount) {
+        this(db, operation, batchSize, requireUpdateCount, false);
+    }
+
+    /**
+     * @param db                  the database
+     * @param operation           the operation name for error messages (e.g. insert)
+     * @param batchSize           the maximum number of rows per executeBatch()
+     * @param requireUpdateCount  if true, a row with an update count of 0 fails
+     * @param returnGeneratedKeys if true, the generated key of each row is retrieved
+     */
+    SQLBatch(Db db, String operation, int batchSize, boolean requireUpdateCount,
+             boolean returnGeneratedKeys) {
+        this.db = db;
+        this.operation = operation;
+        this.batchSize = batchSize;
+        this.requireUpdateCount = requireUpdateCount;
+        this.returnGeneratedKeys = returnGeneratedKeys;
+    }
+
+    /**
+     * Returns the generated keys of the executed rows in row order.
+     *
+     * @return the generated keys
+     */
+    List<Long> getGeneratedKeys() {
+        return generatedKeys;
+    }
+
+    /**
+     * Adds the statement for a row to the batch.
+     *
+     * @param stat the row statement
+     * @param row  the model object, used to report failures
+     */
+    void add(SQLStatement stat, Object row) {
+        if (batchSize <= 1) {
+            if (returnGeneratedKeys) {
+                generatedKeys.add(stat.executeInsert());
+            } else {
+                int rc = stat.executeUpdate();
+                checkUpdateCount(rc, row);
+            }
+            return;
+        }
+        String rowSql = stat.getSQL();
+        if (prep != null && !rowSql.equals(sql)) {
+            // SQL shape changed, flush the pending rows
+            flush();
+        }
+        if (prep == null) {
+            sql = rowSql;
+            prep = db.prepare(sql, returnGeneratedKeys);
+        }
+        stat.addBatch(prep);
+        rows.add(row);
+        if (rows.size() >= batchSize) {
+            executeBatch();
+        }
+    }
+
+    /**
+     * Executes all pending rows and releases the prepared statement.
+     */
+    void flush() {
+        if (prep != null) {
+            executeBatch();
+            db.closeSilently(prep);
+            prep = null;
+            sql = null;
+        }
+    }
+
+    /**
+     * Discards any pending rows and releases the prepared statement. This is
+     * a no-op after a successful flush().
+     */
+    void close() {
+        if (prep != null) {
+            try {
+                prep.clearBatch();
+            } catch (SQLException e) {
+                // ignore
+            }
+            db.closeSilently(prep);
+            prep = null;
+            sql = null;
+            rows.clear();
+        }
+    }
+
+    private void executeBatch() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = prep.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                checkUpdateCount(counts[i], rows.get(i));
+            }
+            if (returnGeneratedKeys) {
+                readGeneratedKeys();
+            }
+        } catch (BatchUpdateException e) {
+            throw failure(e);
+        } catch (SQLException e) {
+            IciqlException ix = new IciqlException(e, "Failed to {0} batch of {1} rows: {2}", operation,
+                    rows.size(), e.getMessage());
+            ix.setSQL(sql);
+            throw ix;
+        } finally {
+            rows.clear();
+        }
+    }
+
+    private void readGeneratedKeys() throws SQLException {
+        int count = 0;
+        ResultSet rs = prep.getGeneratedKeys();
+        try {
+            while (rs != null && rs.next()) {
+                generatedKeys.add(rs.getLong(1));
+                count++;
+            }
+        } finally {
+            JdbcUtils.closeSilently(rs);
+        }
+        if (count > rows.size()) {
+            IciqlException ix = new IciqlException("Expected {0} generated keys from batch but received {1}",
+                    rows.size(), count);
+            ix.setSQL(sql);
+            throw ix;
+        }
+        // a table without an identity column returns no keys
+        for (; count < rows.size(); count++) {
+            generatedKeys.add(-1L);
+        }
+    }
+
+    private void checkUpdateCount(int rc, Object row) {
+        if (requireUpdateCount && rc == 0) {
+            throw new IciqlException("Failed to {0} {1}.  Affected rowcount == 0.", operation, row);
+        }
+    }
+
+    /**
+     * Identifies the failed row of a batch. Drivers either stop at the first
+     * failure and return the counts of the successful rows or continue and
+     * flag the failed rows with EXECUTE_FAILED.
+     */
+    private IciqlException failure(BatchUpdateException e) {
+        int[] counts = e.getUpdateCounts();
+        int index = -1;
+        if (counts != null) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0 && counts.length < rows.size()) {
+                index = counts.length;
+            }
+        }
+        // the chained exception carries the driver-specific SQL state
+        SQLException cause = e.getNextException() == null ? e : e.getNextException();
+        IciqlException ix;
+        if (index >= 0) {
+            ix = new IciqlException(cause, "Failed to {0} {1}: {2}", operation, rows.get(index),
+                    cause.getMessage());
+        } else {
+            ix = new IciqlException(cause, "Failed to {0} batch of {1} rows: {2}", operation, rows.size(),
+                    cause.getMessage());
+        }
+        ix.setSQL(sql);
+        return ix;
+    }
+}
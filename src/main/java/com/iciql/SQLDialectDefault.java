@@ -35,10 +35,11 @@ import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -90,6 +91,16 @@ public class SQLDialectDefault implements SQLDialect {
         return true;
     }
 
+    /**
+     * Returns true if the driver returns the generated keys of every row of
+     * an executeBatch() from getGeneratedKeys().
+     *
+     * @return true if generated keys may be retrieved from a batch.
+     */
+    public boolean supportsBatchGeneratedKeys() {
+        return false;
+    }
+
     /**
      * Allows subclasses to change the type of a column for a CREATE statement.
      *
@@ -444,7 +455,7 @@ public class SQLDialectDefault implements SQLDialect {
         for (FieldDefinition field : def.fields) {
             if (field.isPrimaryKey) {
                 buff.appendExceptFirst(" AND ");
-                buff.append(MessageFormat.format("{0} = ?", prepareColumnName(field.columnName)));
+                buff.append(prepareColumnName(field.columnName)).append(" = ?");
                 Object value = def.getValue(obj, field);
                 Object parameter = serialize(value, field.typeAdapter);
                 stat.addParameter(parameter);
@@ -454,6 +465,73 @@ public class SQLDialectDefault implements SQLDialect {
         stat.setSQL(buff.toString());
     }
 
+    /**
+     * Get a multi-row INSERT INTO ... VALUES (...), (...) statement. The
+     * parameters are added by the caller in row order.
+     *
+     * @param stat        return the SQL statement
+     * @param schemaName  the schema name
+     * @param tableName   the table name
+     * @param columnNames the insert column names
+     * @param rowCount    the number of rows
+     */
+    public void prepareInsertRows(SQLStatement stat, String schemaName, String tableName,
+                                  List<String> columnNames, int rowCount) {
+        StatementBuilder buff = new StatementBuilder("INSERT INTO ");
+        buff.append(prepareTableName(schemaName, tableName)).append('(');
+        for (String columnName : columnNames) {
+            buff.appendExceptFirst(", ");
+            buff.append(prepareColumnName(columnName));
+        }
+        buff.append(") VALUES ");
+        buff.resetCount();
+        for (int i = 0; i < rowCount; i++) {
+            buff.appendExceptFirst(", ");
+            buff.append('(');
+            for (int j = 0; j < columnNames.size(); j++) {
+                if (j > 0) {
+                    buff.append(", ");
+                }
+                buff.append('?');
+            }
+            buff.append(')');
+        }
+        stat.setSQL(buff.toString());
+    }
+
+    /**
+     * Returns the maximum number of parameters that may be bound to a
+     * multi-row INSERT statement. A value of 0 indicates that the dialect does
+     * not support multi-row inserts and JDBC batching is used instead.
+     *
+     * @return the maximum number of parameters of a multi-row insert
+     */
+    public int getMaxInsertParameters() {
+        // multi-row inserts are enabled per dialect
+        return 0;
+    }
+
+    /**
+     * Applies the fetch size and max rows hints of a query to the prepared
+     * statement. Dialects may override this to accommodate driver
+     * requirements for cursor fetches.
+     *
+     * @param db          the database
+     * @param prep        the prepared query
+     * @param fetchSize   the fetch size hint, 0 for the driver default
+     * @param maxRows     the maximum number of rows, 0 for no limit
+     * @throws SQLException
+     */
+    public void configureQuery(Db db, PreparedStatement prep, int fetchSize, long maxRows)
+            throws SQLException {
+        if (fetchSize > 0) {
+            prep.setFetchSize(fetchSize);
+        }
+        if (maxRows > 0) {
+            prep.setMaxRows((int) Math.min(maxRows, Integer.MAX_VALUE));
+        }
+    }
+
     @Override
     public void appendLimitOffset(SQLStatement stat, long limit, long offset) {
         if (limit > 0) {
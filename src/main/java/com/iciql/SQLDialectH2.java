@@ -134,6 +134,17 @@ public class SQLDialectH2 extends SQLDialectDefault {
         stat.setSQL(buff.toString());
     }
 
+    @Override
+    public boolean supportsBatchGeneratedKeys() {
+        return true;
+    }
+
+    @Override
+    public int getMaxInsertParameters() {
+        // no hard limit, keep statements to a reasonable size
+        return 32767;
+    }
+
     @Override
     public <T, A> void prepareBitwiseAnd(SQLStatement stat, Query<T> query, A x, A y) {
         stat.appendSQL("BITAND(");
@@ -19,8 +19,6 @@ package com.iciql;
 import com.iciql.TableDefinition.FieldDefinition;
 import com.iciql.util.StatementBuilder;
 
-import java.text.MessageFormat;
-
 /**
  * HyperSQL database dialect.
  */
@@ -76,16 +74,16 @@ public class SQLDialectHSQL extends SQLDialectDefault {
             if ("VARCHAR".equals(dataType)) {
                 if (field.length > 0) {
                     // VARCHAR(x)
-                    buff.append(MessageFormat.format("({0})", field.length));
+                    buff.append('(').append(field.length).append(')');
                 }
             } else if ("DECIMAL".equals(dataType)) {
                 if (field.length > 0) {
                     if (field.scale > 0) {
                         // DECIMAL(x,y)
-                        buff.append(MessageFormat.format("({0},{1})", field.length, field.scale));
+                        buff.append('(').append(field.length).append(',').append(field.scale).append(')');
                     } else {
                         // DECIMAL(x)
-                        buff.append(MessageFormat.format("({0})", field.length));
+                        buff.append('(').append(field.length).append(')');
                     }
                 }
             }
@@ -148,6 +146,17 @@ public class SQLDialectHSQL extends SQLDialectDefault {
         stat.setSQL(buff.toString());
     }
 
+    @Override
+    public boolean supportsBatchGeneratedKeys() {
+        return true;
+    }
+
+    @Override
+    public int getMaxInsertParameters() {
+        // no hard limit, keep statements to a reasonable size
+        return 32767;
+    }
+
     @Override
     public <T, A> void prepareBitwiseAnd(SQLStatement stat, Query<T> query, A x, A y) {
         stat.appendSQL("BITAND(");
@@ -91,4 +91,15 @@ public class SQLDialectMySQL extends SQLDialectDefault {
         }
         stat.setSQL(buff.toString());
     }
+
+    @Override
+    public boolean supportsBatchGeneratedKeys() {
+        return true;
+    }
+
+    @Override
+    public int getMaxInsertParameters() {
+        // prepared statements are limited to 65535 placeholders
+        return 65535;
+    }
 }
\ No newline at end of file
@@ -18,13 +18,19 @@ package com.iciql;
 
 import com.iciql.TableDefinition.FieldDefinition;
 import com.iciql.TableDefinition.IndexDefinition;
+import com.iciql.util.IciqlLogger;
 import com.iciql.util.StatementBuilder;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 /**
  * PostgreSQL database dialect.
  */
 public class SQLDialectPostgreSQL extends SQLDialectDefault {
 
+    private volatile boolean warnedAutoCommit;
+
     @Override
     public Class<? extends java.util.Date> getDateTimeClass() {
         return java.sql.Timestamp.class;
@@ -158,6 +164,33 @@ public class SQLDialectPostgreSQL extends SQLDialectDefault {
         stat.setSQL(buff.toString());
     }
 
+    @Override
+    public boolean supportsBatchGeneratedKeys() {
+        return true;
+    }
+
+    @Override
+    public void configureQuery(Db db, PreparedStatement prep, int fetchSize, long maxRows)
+            throws SQLException {
+        if (fetchSize > 0 && db.getConnection().getAutoCommit()) {
+            // the driver only fetches with a cursor inside a transaction and
+            // auto-commit is not switched behind the caller's back
+            fetchSize = 0;
+            if (!warnedAutoCommit) {
+                warnedAutoCommit = true;
+                IciqlLogger.warn("PostgreSQL ignores the fetch size in autocommit mode, "
+                        + "use a transaction to stream the result");
+            }
+        }
+        super.configureQuery(db, prep, fetchSize, maxRows);
+    }
+
+    @Override
+    public int getMaxInsertParameters() {
+        // the bind message encodes the parameter count as a signed short
+        return 32767;
+    }
+
     @Override
     public <T, A> void prepareBitwiseXor(SQLStatement stat, Query<T> query, A x, A y) {
         query.appendSQL(stat, null, x);
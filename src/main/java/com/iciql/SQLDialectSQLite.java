@@ -23,6 +23,7 @@ import com.iciql.util.IciqlLogger;
 import com.iciql.util.StatementBuilder;
 
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Time;
@@ -139,6 +140,22 @@ public class SQLDialectSQLite extends SQLDialectDefault {
         stat.setSQL(buff.toString());
     }
 
+    @Override
+    public void configureQuery(Db db, PreparedStatement prep, int fetchSize, long maxRows)
+            throws SQLException {
+        // the driver rejects fetch settings before the statement is executed
+        // and an embedded database does not fetch in round trips
+        if (maxRows > 0) {
+            prep.setMaxRows((int) Math.min(maxRows, Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public int getMaxInsertParameters() {
+        // SQLITE_MAX_VARIABLE_NUMBER defaults to 999 before 3.32.0
+        return 999;
+    }
+
     @Override
     public Object deserialize(ResultSet rs, int columnIndex, Class<?> targetType, Class<? extends DataTypeAdapter<?>> typeAdapter) {
         try {
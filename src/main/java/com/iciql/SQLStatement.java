@@ -17,12 +17,17 @@
 
 package com.iciql;
 
+import com.iciql.TableDefinition.FieldDefinition;
+import com.iciql.util.IciqlLogger;
+import com.iciql.util.IciqlMetrics;
 import com.iciql.util.JdbcUtils;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 /**
@@ -30,10 +35,27 @@ import java.util.StringTokenizer;
  */
 
 public class SQLStatement {
+
+    /**
+     * The maximum number of parameters and the maximum length of a parameter
+     * value in the slow statement log.
+     */
+    private static final int MAX_LOGGED_PARAMETERS = 50;
+    private static final int MAX_LOGGED_PARAMETER_LENGTH = 100;
+
     private Db db;
-    private StringBuilder buff = new StringBuilder();
+    private StringBuilder buff;
     private String sql;
     private ArrayList<Object> params = new ArrayList<Object>();
+    private ArrayList<ParameterBinder> binders;
+    private ArrayList<Integer> runtimeIndexes;
+    private ArrayList<FieldDefinition> runtimeFields;
+    private int fetchSize;
+    private long maxRows;
+    private Class<?> modelClass;
+    private boolean mapped;
+    private boolean timed;
+    private long executionNanos;
 
     SQLStatement(Db db) {
         this.db = db;
@@ -41,10 +63,14 @@ public class SQLStatement {
 
     public void setSQL(String sql) {
         this.sql = sql;
-        buff = new StringBuilder(sql);
+        // the buffer is only created if the statement is appended to
+        buff = null;
     }
 
     public SQLStatement appendSQL(String s) {
+        if (buff == null) {
+            buff = sql == null ? new StringBuilder() : new StringBuilder(sql);
+        }
         buff.append(s);
         sql = null;
         return this;
@@ -66,7 +92,7 @@ public class SQLStatement {
      */
     String getSQL() {
         if (sql == null) {
-            sql = buff.toString();
+            sql = buff == null ? "" : buff.toString();
         }
         return sql;
     }
@@ -78,9 +104,7 @@ public class SQLStatement {
      * @return a complete sql statement
      */
     String toSQL() {
-        if (sql == null) {
-            sql = buff.toString();
-        }
+        getSQL();
         if (params.size() == 0) {
             return sql;
         }
@@ -106,50 +130,159 @@ public class SQLStatement {
     }
 
     public SQLStatement addParameter(Object o) {
-        // Automatically convert java.util.Date to java.sql.Timestamp
-        // if the dialect requires java.sql.Timestamp objects (e.g. Derby)
-        if (o != null && o.getClass().equals(java.util.Date.class)
-                && db.getDialect().getDateTimeClass().equals(java.sql.Timestamp.class)) {
-            o = new java.sql.Timestamp(((java.util.Date) o).getTime());
+        params.add(o);
+        if (binders != null) {
+            binders.add(null);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the parameter of a field value which is bound with the binder of
+     * the field.
+     *
+     * @param o     the parameter value
+     * @param field the field definition
+     */
+    SQLStatement addParameter(Object o, FieldDefinition field) {
+        return addParameter(o, field.binder);
+    }
+
+    /**
+     * Adds a parameter which is bound with the specified binder.
+     *
+     * @param o      the parameter value
+     * @param binder the binder, null to choose the binder by the value
+     */
+    SQLStatement addParameter(Object o, ParameterBinder binder) {
+        if (binder == null) {
+            return addParameter(o);
+        }
+        if (binders == null) {
+            binders = new ArrayList<ParameterBinder>(params.size() + 1);
+            for (int i = 0; i < params.size(); i++) {
+                binders.add(null);
+            }
         }
         params.add(o);
+        binders.add(binder);
         return this;
     }
 
+    /**
+     * Adds a runtime parameter placeholder which is bound when a compiled
+     * query is executed.
+     *
+     * @param field the field definition of the parameter, may be null
+     */
+    void addRuntimeParameter(FieldDefinition field) {
+        if (runtimeIndexes == null) {
+            runtimeIndexes = new ArrayList<Integer>();
+            runtimeFields = new ArrayList<FieldDefinition>();
+        }
+        runtimeIndexes.add(params.size());
+        runtimeFields.add(field);
+        addParameter(RuntimeParameter.PARAMETER);
+    }
+
+    List<Object> getParameters() {
+        return params;
+    }
+
+    /**
+     * Returns the binders of the parameters, null elements are chosen by the
+     * value when the statement is bound.
+     */
+    ParameterBinder[] getBinders() {
+        ParameterBinder[] array = new ParameterBinder[params.size()];
+        if (binders != null) {
+            binders.toArray(array);
+        }
+        return array;
+    }
+
+    List<Integer> getRuntimeIndexes() {
+        return runtimeIndexes == null ? new ArrayList<Integer>() : runtimeIndexes;
+    }
+
+    List<FieldDefinition> getRuntimeFields() {
+        return runtimeFields == null ? new ArrayList<FieldDefinition>() : runtimeFields;
+    }
+
+    int getFetchSize() {
+        return fetchSize;
+    }
+
+    long getMaxRows() {
+        return maxRows;
+    }
+
     void execute() {
         PreparedStatement ps = null;
+        long start = startTimer();
         try {
             ps = prepare(false);
             ps.execute();
+            executed(start, -1);
         } catch (SQLException e) {
             throw IciqlException.fromSQL(getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(ps);
+            db.closeSilently(ps);
         }
     }
 
+    /**
+     * Sets the number of rows the driver should fetch per round trip when the
+     * statement is executed as a query. A value of 0 uses the driver default.
+     *
+     * @param fetchSize
+     */
+    void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Sets the maximum number of rows of the query result. A value of 0 does
+     * not limit the result.
+     *
+     * @param maxRows
+     */
+    void setMaxRows(long maxRows) {
+        this.maxRows = maxRows;
+    }
+
     ResultSet executeQuery() {
+        PreparedStatement ps = null;
+        long start = startTimer();
         try {
-            return prepare(false).executeQuery();
+            ps = prepare(false);
+            ResultSet rs = ps.executeQuery();
+            executed(start, -1);
+            return rs;
         } catch (SQLException e) {
+            db.closeSilently(ps);
             throw IciqlException.fromSQL(getSQL(), e);
         }
     }
 
     int executeUpdate() {
         PreparedStatement ps = null;
+        long start = startTimer();
         try {
             ps = prepare(false);
-            return ps.executeUpdate();
+            int rc = ps.executeUpdate();
+            executed(start, rc);
+            return rc;
         } catch (SQLException e) {
             throw IciqlException.fromSQL(getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(ps);
+            db.closeSilently(ps);
         }
     }
 
     long executeInsert() {
         PreparedStatement ps = null;
+        long start = startTimer();
         try {
             ps = prepare(true);
             ps.executeUpdate();
@@ -159,20 +292,155 @@ public class SQLStatement {
                 identity = rs.getLong(1);
             }
             JdbcUtils.closeSilently(rs);
+            executed(start, 1);
             return identity;
         } catch (SQLException e) {
             throw IciqlException.fromSQL(getSQL(), e);
         } finally {
-            JdbcUtils.closeSilently(ps);
+            db.closeSilently(ps);
+        }
+    }
+
+    /**
+     * Sets the model class of the statement which is reported in the slow
+     * statement log and used to recreate a missing table.
+     *
+     * @param modelClass
+     */
+    void setModelClass(Class<?> modelClass) {
+        this.modelClass = modelClass;
+    }
+
+    /**
+     * Marks a query whose rows are read by a QueryCursor. The slow statement
+     * log of a mapped query is deferred until its rows have been read.
+     *
+     * @param mapped
+     */
+    void setMapped(boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    /**
+     * Returns true if the execution of this statement was timed.
+     */
+    boolean isTimed() {
+        return timed;
+    }
+
+    private long startTimer() {
+        if (IciqlMetrics.isEnabled() || db.getSlowStatementNanos() > 0) {
+            return System.nanoTime();
         }
+        return 0;
     }
 
-    private void setValue(PreparedStatement prep, int parameterIndex, Object x) {
+    /**
+     * Records the execution time if metrics or the slow statement log were
+     * enabled when the execution started.
+     *
+     * @param start the start time, 0 if the execution was not timed
+     * @param rows  the affected rows, -1 if unknown
+     */
+    private void executed(long start, long rows) {
+        if (start == 0) {
+            return;
+        }
+        timed = true;
+        executionNanos = System.nanoTime() - start;
+        if (IciqlMetrics.isEnabled()) {
+            IciqlMetrics.recordExecution(getSQL(), executionNanos);
+        }
+        if (!mapped) {
+            logIfSlow(0, rows);
+        }
+    }
+
+    /**
+     * Records the time spent reading the rows of a timed query.
+     *
+     * @param mappingNanos the elapsed time
+     * @param rows         the number of rows read
+     */
+    void mapped(long mappingNanos, long rows) {
+        if (IciqlMetrics.isEnabled()) {
+            IciqlMetrics.recordMapping(getSQL(), mappingNanos, rows);
+        }
+        logIfSlow(mappingNanos, rows);
+    }
+
+    private void logIfSlow(long mappingNanos, long rows) {
+        long threshold = db.getSlowStatementNanos();
+        if (threshold <= 0 || executionNanos + mappingNanos < threshold) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("slow statement ").append(toMillis(executionNanos + mappingNanos)).append(" ms (execution ");
+        sb.append(toMillis(executionNanos)).append(" ms, mapping ").append(toMillis(mappingNanos));
+        sb.append(" ms)");
+        if (rows >= 0) {
+            sb.append(", ").append(rows).append(" rows");
+        }
+        if (modelClass != null) {
+            sb.append(", ").append(modelClass.getName());
+        }
+        sb.append(": ").append(getSQL());
+        if (!params.isEmpty()) {
+            sb.append(" ");
+            appendParameters(sb);
+        }
+        IciqlLogger.slow(sb.toString());
+    }
+
+    /**
+     * Appends the parameters with the count and the length of the values
+     * capped.
+     */
+    private void appendParameters(StringBuilder sb) {
+        sb.append('[');
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (i == MAX_LOGGED_PARAMETERS) {
+                sb.append("... ").append(params.size() - i).append(" more");
+                break;
+            }
+            Object o = params.get(i);
+            if (o == null) {
+                sb.append("null");
+            } else if (o instanceof byte[]) {
+                sb.append("byte[").append(((byte[]) o).length).append(']');
+            } else {
+                String value = o.toString();
+                boolean quote = o instanceof CharSequence || o instanceof Character;
+                if (quote) {
+                    sb.append('\'');
+                }
+                if (value.length() > MAX_LOGGED_PARAMETER_LENGTH) {
+                    sb.append(value, 0, MAX_LOGGED_PARAMETER_LENGTH);
+                    sb.append("...(").append(value.length()).append(" chars)");
+                } else {
+                    sb.append(value);
+                }
+                if (quote) {
+                    sb.append('\'');
+                }
+            }
+        }
+        sb.append(']');
+    }
+
+    private static String toMillis(long nanos) {
+        return String.valueOf(nanos / 100000 / 10d);
+    }
+
+    private void setValue(PreparedStatement prep, int parameterIndex, ParameterBinder binder, Object x) {
         try {
-            prep.setObject(parameterIndex, x);
+            binder.bind(prep, parameterIndex, x);
         } catch (SQLException e) {
-            IciqlException ix = new IciqlException(e, "error setting parameter {0} as {1}", parameterIndex, x
-                    .getClass().getSimpleName());
+            IciqlException ix = new IciqlException(e, "error setting parameter {0} as {1}", parameterIndex,
+                    x == null ? "null" : x.getClass().getSimpleName());
             ix.setSQL(getSQL());
             throw ix;
         }
@@ -180,11 +448,66 @@ public class SQLStatement {
 
     PreparedStatement prepare(boolean returnGeneratedKeys) {
         PreparedStatement prep = db.prepare(getSQL(), returnGeneratedKeys);
+        try {
+            bind(prep);
+        } catch (RuntimeException e) {
+            // the callers only release a prepared statement they received
+            db.closeSilently(prep);
+            throw e;
+        }
+        if (fetchSize > 0 || maxRows > 0) {
+            try {
+                db.configured(prep);
+                SQLDialect dialect = db.getDialect();
+                if (dialect instanceof SQLDialectDefault) {
+                    ((SQLDialectDefault) dialect).configureQuery(db, prep, fetchSize, maxRows);
+                } else {
+                    if (fetchSize > 0) {
+                        prep.setFetchSize(fetchSize);
+                    }
+                    if (maxRows > 0) {
+                        prep.setMaxRows((int) Math.min(maxRows, Integer.MAX_VALUE));
+                    }
+                }
+            } catch (SQLException e) {
+                db.closeSilently(prep);
+                throw IciqlException.fromSQL(getSQL(), e);
+            }
+        }
+        return prep;
+    }
+
+    /**
+     * Binds the parameters of this statement to the prepared statement and
+     * adds them to its batch. The prepared statement must have been prepared
+     * from the same SQL.
+     *
+     * @param prep the prepared statement
+     */
+    void addBatch(PreparedStatement prep) {
+        bind(prep);
+        try {
+            prep.addBatch();
+        } catch (SQLException e) {
+            throw IciqlException.fromSQL(getSQL(), e);
+        }
+    }
+
+    private void bind(PreparedStatement prep) {
+        // bind java.util.Date as java.sql.Timestamp if the dialect
+        // requires java.sql.Timestamp objects (e.g. Derby)
+        boolean timestamps = db.getDialect().getDateTimeClass().equals(Timestamp.class);
         for (int i = 0; i < params.size(); i++) {
             Object o = params.get(i);
-            setValue(prep, i + 1, o);
+            if (timestamps && o != null && o.getClass().equals(java.util.Date.class)) {
+                o = new Timestamp(((java.util.Date) o).getTime());
+            }
+            ParameterBinder binder = binders == null ? null : binders.get(i);
+            if (binder == null) {
+                binder = ParameterBinders.forValue(o);
+            }
+            setValue(prep, i + 1, binder, o);
         }
-        return prep;
     }
 
 }
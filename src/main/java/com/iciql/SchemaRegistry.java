@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A process-wide registry of the models whose tables have been created and
+ * checked for upgrades, and of the database upgraders which have been applied.
+ * <p>
+ * Entries are keyed by a database key (JDBC URL, user and catalog) and by the
+ * model or upgrader class, and record the version that was verified and the
+ * table of a model. A Db that finds a model verified at the version of its
+ * definition skips the CREATE statements and the version table queries of
+ * that model.
+ * <p>
+ * Entries never expire unless a time-to-live is set.
+ */
+final class SchemaRegistry {
+
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<Class<?>, Verification>> DATABASES =
+            new ConcurrentHashMap<String, ConcurrentHashMap<Class<?>, Verification>>();
+
+    private static volatile long ttlNanos;
+
+    private SchemaRegistry() {
+    }
+
+    /**
+     * Sets the time after which a verification expires. A value of 0 keeps
+     * verifications until they are reset.
+     *
+     * @param ttl  the time-to-live
+     * @param unit the unit of the time-to-live
+     */
+    static void setTtl(long ttl, TimeUnit unit) {
+        ttlNanos = unit.toNanos(Math.max(0, ttl));
+    }
+
+    /**
+     * Returns true if the class has been verified at the version in the
+     * database and the verification has not expired.
+     *
+     * @param database the database key, may be null
+     * @param clazz    the model or upgrader class
+     * @param version  the expected version
+     * @return true if verified
+     */
+    static boolean isVerified(String database, Class<?> clazz, int version) {
+        if (database == null) {
+            return false;
+        }
+        ConcurrentHashMap<Class<?>, Verification> verified = DATABASES.get(database);
+        Verification verification = verified == null ? null : verified.get(clazz);
+        if (verification == null || verification.version != version) {
+            return false;
+        }
+        long ttl = ttlNanos;
+        if (ttl > 0 && System.nanoTime() - verification.timestamp > ttl) {
+            verified.remove(clazz, verification);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records that the class has been verified at the version in the
+     * database.
+     *
+     * @param database the database key, may be null
+     * @param clazz    the model or upgrader class
+     * @param version  the verified version
+     * @param table    the table of a model, null for an upgrader
+     */
+    static void verified(String database, Class<?> clazz, int version, String table) {
+        if (database == null) {
+            return;
+        }
+        ConcurrentHashMap<Class<?>, Verification> verified = DATABASES.get(database);
+        if (verified == null) {
+            verified = new ConcurrentHashMap<Class<?>, Verification>();
+            ConcurrentHashMap<Class<?>, Verification> existing = DATABASES.putIfAbsent(database, verified);
+            if (existing != null) {
+                verified = existing;
+            }
+        }
+        verified.put(clazz, new Verification(version, table, System.nanoTime()));
+    }
+
+    /**
+     * Removes the verifications of all models of a table in the database.
+     *
+     * @param database the database key, may be null
+     * @param table    the table
+     */
+    static void invalidate(String database, String table) {
+        ConcurrentHashMap<Class<?>, Verification> verified = database == null ? null : DATABASES.get(database);
+        if (verified != null) {
+            for (Map.Entry<Class<?>, Verification> entry : verified.entrySet()) {
+                if (table.equals(entry.getValue().table)) {
+                    verified.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all verifications of the database.
+     *
+     * @param database the database key, may be null
+     */
+    static void reset(String database) {
+        if (database != null) {
+            DATABASES.remove(database);
+        }
+    }
+
+    /**
+     * Removes all verifications.
+     */
+    static void reset() {
+        DATABASES.clear();
+    }
+
+    private static class Verification {
+        final int version;
+        final String table;
+        final long timestamp;
+
+        Verification(int version, String table, long timestamp) {
+            this.version = version;
+            this.table = table;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.util.JdbcUtils;
+import com.iciql.util.Utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A per-connection cache of prepared statements with LRU eviction.
+ * <p>
+ * Statements are keyed by their SQL text and the generated-keys flag. A cached
+ * statement is leased to exactly one caller at a time; if the same statement
+ * is requested while it is still leased (e.g. a nested query with an open
+ * ResultSet) an uncached statement is prepared instead and closed on release.
+ */
+class StatementCache {
+
+    /**
+     * The key of a cached statement.
+     */
+    static class Key {
+        final String sql;
+        final boolean returnGeneratedKeys;
+
+        Key(String sql, boolean returnGeneratedKeys) {
+            this.sql = sql;
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+
+        @Override
+        public int hashCode() {
+            return returnGeneratedKeys ? ~sql.hashCode() : sql.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key k = (Key) o;
+                return returnGeneratedKeys == k.returnGeneratedKeys && sql.equals(k.sql);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A cached statement and its lease state.
+     */
+    static class Entry {
+        final Key key;
+        final PreparedStatement statement;
+        boolean leased;
+        boolean configured;
+
+        Entry(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        /**
+         * Restores the JDBC defaults of query settings changed by the
+         * previous lease. A setting that the driver rejects could not have
+         * been changed and is skipped.
+         */
+        void reset() {
+            if (configured) {
+                try {
+                    statement.setFetchSize(0);
+                } catch (SQLException e) {
+                    // not supported
+                }
+                try {
+                    statement.setMaxRows(0);
+                } catch (SQLException e) {
+                    // not supported
+                }
+                configured = false;
+            }
+        }
+    }
+
+    private final Connection conn;
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final IdentityHashMap<Statement, Entry> statements = Utils.newIdentityHashMap();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    StatementCache(Connection conn, int capacity) {
+        this.conn = conn;
+        this.capacity = capacity;
+        // access-ordered map for LRU iteration
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > StatementCache.this.capacity) {
+                    evict(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Leases a prepared statement for the SQL text. The statement must be
+     * returned to the cache with {@link #release(Statement)}.
+     *
+     * @param sql
+     * @param returnGeneratedKeys
+     * @return a prepared statement
+     * @throws SQLException
+     */
+    synchronized PreparedStatement lease(String sql, boolean returnGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, returnGeneratedKeys);
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.leased) {
+            hits++;
+            entry.leased = true;
+            entry.statement.clearParameters();
+            return entry.statement;
+        }
+        misses++;
+        PreparedStatement statement = prepare(sql, returnGeneratedKeys);
+        if (entry == null) {
+            // cache the new statement, possibly evicting the eldest entry
+            entry = new Entry(key, statement);
+            entry.leased = true;
+            statements.put(statement, entry);
+            entries.put(key, entry);
+        }
+        return statement;
+    }
+
+    /**
+     * Marks a leased statement whose query settings (fetch size, max rows or
+     * fetch direction) were changed so that they are reset on release.
+     *
+     * @param statement
+     */
+    synchronized void configured(Statement statement) {
+        Entry entry = statements.get(statement);
+        if (entry != null) {
+            entry.configured = true;
+        }
+    }
+
+    /**
+     * Returns a statement to the cache. Uncached or evicted statements are
+     * closed. Query settings of cached statements are restored.
+     *
+     * @param statement
+     */
+    synchronized void release(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        Entry entry = statements.get(statement);
+        if (entry == null) {
+            JdbcUtils.closeSilently(statement);
+            return;
+        }
+        entry.reset();
+        entry.leased = false;
+    }
+
+    /**
+     * Closes all idle statements and empties the cache. Leased statements are
+     * closed when they are released.
+     */
+    synchronized void clear() {
+        Iterator<Entry> itr = entries.values().iterator();
+        while (itr.hasNext()) {
+            Entry entry = itr.next();
+            statements.remove(entry.statement);
+            if (!entry.leased) {
+                JdbcUtils.closeSilently(entry.statement);
+            }
+            itr.remove();
+        }
+    }
+
+    private void evict(Entry entry) {
+        evictions++;
+        statements.remove(entry.statement);
+        if (!entry.leased) {
+            JdbcUtils.closeSilently(entry.statement);
+        }
+    }
+
+    private PreparedStatement prepare(String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (returnGeneratedKeys) {
+            return conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        }
+        return conn.prepareStatement(sql);
+    }
+}
@@ -25,7 +25,6 @@ import com.iciql.util.StringUtils;
 import com.iciql.util.Utils;
 
 import java.lang.reflect.Field;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -35,6 +34,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A table definition contains the index definitions of a table, the field
@@ -89,6 +89,8 @@ public class TableDefinition<T> {
     static class FieldDefinition {
         String columnName;
         Field field;
+        FieldAccessor accessor;
+        ParameterBinder binder;
         String dataType;
         int length;
         int scale;
@@ -104,11 +106,25 @@ public class TableDefinition<T> {
         Class<? extends DataTypeAdapter<?>> typeAdapter;
 
         Object getValue(Object obj) {
-            try {
-                return field.get(obj);
-            } catch (Exception e) {
-                throw new IciqlException(e);
+            return accessor.get(obj);
+        }
+
+        /**
+         * Converts a condition value of this field to a statement parameter
+         * like the query DSL does.
+         */
+        Object toParameter(SQLDialect dialect, Object value) {
+            if (value != null && value.getClass().isEnum()) {
+                return Utils.convertEnum((Enum<?>) value, enumType);
             }
+            if (value instanceof String && trim && length > 0) {
+                // clip strings (issue-15)
+                String s = (String) value;
+                if (s.length() > length) {
+                    value = s.substring(0, length);
+                }
+            }
+            return dialect.serialize(value, typeAdapter);
         }
 
         private Object initWithNewObject(Object obj) {
@@ -118,22 +134,7 @@ public class TableDefinition<T> {
         }
 
         private void setValue(Object obj, Object o) {
-            try {
-                if (!field.isAccessible()) {
-                    field.setAccessible(true);
-                }
-
-                if (field.getType().isPrimitive() && o == null) {
-                    // do not attempt to set a primitive to null
-                    return;
-                }
-
-                field.set(obj, o);
-            } catch (IciqlException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new IciqlException(e);
-            }
+            accessor.set(obj, o);
         }
 
         @Override
@@ -150,6 +151,21 @@ public class TableDefinition<T> {
         }
     }
 
+    /**
+     * The generated INSERT, UPDATE and DELETE statements of a dialect. INSERT
+     * statements are keyed by the bitmask of the fields skipped by the insert.
+     */
+    static class CrudStatements {
+        final Class<? extends SQLDialect> dialectClass;
+        final Map<Long, String> inserts = new ConcurrentHashMap<Long, String>();
+        volatile String update;
+        volatile String delete;
+
+        CrudStatements(Class<? extends SQLDialect> dialectClass) {
+            this.dialectClass = dialectClass;
+        }
+    }
+
     public ArrayList<FieldDefinition> fields = Utils.newArrayList();
     String schemaName;
     String tableName;
@@ -162,6 +178,9 @@ public class TableDefinition<T> {
     private boolean createIfRequired = true;
     private Class<T> clazz;
     private IdentityHashMap<Object, FieldDefinition> fieldMap = Utils.newIdentityHashMap();
+    private volatile List<FieldDefinition> primaryKeyFields;
+    private volatile CrudStatements crudStatements;
+    private volatile RowMapper<T> rowMapper;
     private ArrayList<IndexDefinition> indexes = Utils.newArrayList();
     ArrayList<ConstraintForeignKeyDefinition> constraintsForeignKey = Utils.newArrayList();
     ArrayList<ConstraintUniqueDefinition> constraintsUnique = Utils.newArrayList();
@@ -225,6 +244,29 @@ public class TableDefinition<T> {
         for (FieldDefinition fieldDefinition : fieldMap.values()) {
             fieldDefinition.isPrimaryKey = pkNames.contains(fieldDefinition.columnName.toLowerCase());
         }
+        // the generated statements depend on the primary key
+        primaryKeyFields = null;
+        crudStatements = null;
+    }
+
+    /**
+     * Returns the primary key fields in primary key column order.
+     */
+    private List<FieldDefinition> getPrimaryKeyFields() {
+        List<FieldDefinition> pkFields = primaryKeyFields;
+        if (pkFields == null) {
+            pkFields = Utils.newArrayList();
+            for (String name : primaryKeyColumnNames) {
+                for (FieldDefinition field : fields) {
+                    if (field.columnName.equalsIgnoreCase(name)) {
+                        pkFields.add(field);
+                        break;
+                    }
+                }
+            }
+            primaryKeyFields = pkFields;
+        }
+        return pkFields;
     }
 
     private <A> String getColumnName(A fieldObject) {
@@ -373,6 +415,8 @@ public class TableDefinition<T> {
         FieldDefinition def = fieldMap.get(column);
         if (def != null) {
             def.typeAdapter = typeAdapter;
+            // the adapter decides the JDBC type
+            def.binder = ParameterBinders.forField(def);
         }
     }
 
@@ -481,6 +525,7 @@ public class TableDefinition<T> {
                 FieldDefinition fieldDef = new FieldDefinition();
                 fieldDef.isPrimitive = f.getType().isPrimitive();
                 fieldDef.field = f;
+                fieldDef.accessor = FieldAccessors.create(f);
                 fieldDef.columnName = columnName;
                 fieldDef.isAutoIncrement = isAutoIncrement;
                 fieldDef.isPrimaryKey = isPrimaryKey;
@@ -494,6 +539,7 @@ public class TableDefinition<T> {
                 fieldDef.dataType = StringUtils.isNullOrEmpty(dataType) ? ModelUtils.getDataType(fieldDef) : dataType;
                 fieldDef.typeAdapter = typeAdapter;
                 fieldDef.constraint = constraint;
+                fieldDef.binder = ParameterBinders.forField(fieldDef);
                 uniqueFields.add(fieldDef);
             }
         }
@@ -618,98 +664,177 @@ public class TableDefinition<T> {
         return value;
     }
 
-    PreparedStatement createInsertStatement(Db db, Object obj, boolean returnKey) {
+    long insert(Db db, Object obj, boolean returnKey) {
+        SQLStatement stat = createInsert(db, obj);
+        if (returnKey) {
+            return stat.executeInsert();
+        }
+        return stat.executeUpdate();
+    }
+
+    /**
+     * Builds the INSERT statement and parameters for an object without
+     * executing it. The SQL is generated once per combination of skipped
+     * fields.
+     */
+    SQLStatement createInsert(Db db, Object obj) {
+        if (!StringUtils.isNullOrEmpty(viewTableName)) {
+            throw new IciqlException("Iciql does not support inserting rows into views!");
+        }
+        int count = fields.size();
+        boolean[] skip = new boolean[count];
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            if (skipInsertField(fields.get(i), obj)) {
+                skip[i] = true;
+                mask |= 1L << i;
+            }
+        }
+        // the bitmask can only key models of up to 64 fields
+        Map<Long, String> inserts = count <= 64 ? getCrudStatements(db.getDialect()).inserts : null;
+        String sql = inserts == null ? null : inserts.get(mask);
+        if (sql == null) {
+            sql = buildInsertSQL(db.getDialect(), skip);
+            if (inserts != null) {
+                inserts.put(mask, sql);
+            }
+        }
         SQLStatement stat = new SQLStatement(db);
+        stat.setModelClass(clazz);
+        stat.setSQL(sql);
+        for (int i = 0; i < count; i++) {
+            if (!skip[i]) {
+                stat.addParameter(getInsertParameter(db, obj, fields.get(i)), fields.get(i));
+            }
+        }
+        IciqlLogger.insert(sql);
+        return stat;
+    }
+
+    private String buildInsertSQL(SQLDialect dialect, boolean[] skip) {
         StatementBuilder buff = new StatementBuilder("INSERT INTO ");
-        buff.append(db.getDialect().prepareTableName(schemaName, tableName)).append('(');
-        for (FieldDefinition field : fields) {
-            if (skipInsertField(field, obj)) {
+        buff.append(dialect.prepareTableName(schemaName, tableName)).append('(');
+        for (int i = 0; i < fields.size(); i++) {
+            if (skip[i]) {
                 continue;
             }
             buff.appendExceptFirst(", ");
-            buff.append(db.getDialect().prepareColumnName(field.columnName));
+            buff.append(dialect.prepareColumnName(fields.get(i).columnName));
         }
         buff.append(") VALUES(");
         buff.resetCount();
-        for (FieldDefinition field : fields) {
-            if (skipInsertField(field, obj)) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (skip[i]) {
                 continue;
             }
             buff.appendExceptFirst(", ");
             buff.append('?');
-            Object value = getValue(obj, field);
-            if (value == null) {
-                if (!field.nullable) {
-                    // try to interpret and instantiate a default value
-                    value = ModelUtils.getDefaultValue(field, db.getDialect().getDateTimeClass());
-                }
-            }
-            Object parameter = db.getDialect().serialize(value, field.typeAdapter);
-            stat.addParameter(parameter);
         }
         buff.append(')');
-        stat.setSQL(buff.toString());
-        IciqlLogger.insert(stat.getSQL());
-        return stat.prepare(returnKey);
+        return buff.toString();
     }
 
-    long insert(Db db, Object obj, boolean returnKey) {
+    private CrudStatements getCrudStatements(SQLDialect dialect) {
+        CrudStatements crud = crudStatements;
+        if (crud == null || crud.dialectClass != dialect.getClass()) {
+            crud = new CrudStatements(dialect.getClass());
+            crudStatements = crud;
+        }
+        return crud;
+    }
+
+    /**
+     * Inserts the objects with multi-row INSERT statements. Consecutive
+     * objects that insert the same columns are sent in one statement, limited
+     * by the batch size and the parameter limit of the dialect.
+     *
+     * @param db        the database
+     * @param list      the objects to insert
+     * @param batchSize the maximum number of rows per statement
+     */
+    void insertRows(Db db, List<?> list, int batchSize) {
         if (!StringUtils.isNullOrEmpty(viewTableName)) {
             throw new IciqlException("Iciql does not support inserting rows into views!");
         }
+        int maxParameters = db.getMaxInsertParameters();
+        List<Object> rows = Utils.newArrayList();
+        List<FieldDefinition> columns = null;
+        for (Object obj : list) {
+            List<FieldDefinition> insertFields = getInsertFields(obj);
+            if (columns != null && !columns.equals(insertFields)) {
+                insertRows(db, columns, rows);
+                rows.clear();
+            }
+            columns = insertFields;
+            rows.add(obj);
+            int maxRows = Math.max(1, Math.min(batchSize, maxParameters / Math.max(1, columns.size())));
+            if (rows.size() >= maxRows) {
+                insertRows(db, columns, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            insertRows(db, columns, rows);
+        }
+    }
+
+    private void insertRows(Db db, List<FieldDefinition> columns, List<Object> rows) {
         SQLStatement stat = new SQLStatement(db);
-        StatementBuilder buff = new StatementBuilder("INSERT INTO ");
-        buff.append(db.getDialect().prepareTableName(schemaName, tableName)).append('(');
-        for (FieldDefinition field : fields) {
-            if (skipInsertField(field, obj)) {
-                continue;
+        stat.setModelClass(clazz);
+        List<String> columnNames = Utils.newArrayList();
+        for (FieldDefinition field : columns) {
+            columnNames.add(field.columnName);
+        }
+        ((SQLDialectDefault) db.getDialect()).prepareInsertRows(stat, schemaName, tableName, columnNames,
+                rows.size());
+        for (Object obj : rows) {
+            for (FieldDefinition field : columns) {
+                stat.addParameter(getInsertParameter(db, obj, field), field);
             }
-            buff.appendExceptFirst(", ");
-            buff.append(db.getDialect().prepareColumnName(field.columnName));
         }
-        buff.append(") VALUES(");
-        buff.resetCount();
+        IciqlLogger.insert(stat.getSQL());
+        int rc = stat.executeUpdate();
+        if (rc == 0) {
+            throw new IciqlException("Failed to insert {0} rows.  Affected rowcount == 0.", rows.size());
+        }
+    }
+
+    private List<FieldDefinition> getInsertFields(Object obj) {
+        List<FieldDefinition> insertFields = Utils.newArrayList();
         for (FieldDefinition field : fields) {
-            if (skipInsertField(field, obj)) {
-                continue;
+            if (!skipInsertField(field, obj)) {
+                insertFields.add(field);
             }
-            buff.appendExceptFirst(", ");
-            buff.append('?');
-            Object value = getValue(obj, field);
-            if (value == null && !field.nullable) {
-                // try to interpret and instantiate a default value
-                value = ModelUtils.getDefaultValue(field, db.getDialect().getDateTimeClass());
-            }
-            Object parameter = db.getDialect().serialize(value, field.typeAdapter);
-            stat.addParameter(parameter);
         }
-        buff.append(')');
-        stat.setSQL(buff.toString());
-        IciqlLogger.insert(stat.getSQL());
-        if (returnKey) {
-            return stat.executeInsert();
+        return insertFields;
+    }
+
+    private Object getInsertParameter(Db db, Object obj, FieldDefinition field) {
+        Object value = getValue(obj, field);
+        if (value == null && !field.nullable) {
+            // try to interpret and instantiate a default value
+            value = ModelUtils.getDefaultValue(field, db.getDialect().getDateTimeClass());
         }
-        return stat.executeUpdate();
+        return db.getDialect().serialize(value, field.typeAdapter);
     }
 
     private boolean skipInsertField(FieldDefinition field, Object obj) {
+        // the raw field value is null exactly when the converted value is
+        Object value = field.getValue(obj);
         if (field.isAutoIncrement) {
-            Object value = getValue(obj, field);
             if (field.isPrimitive) {
                 // skip uninitialized primitive autoincrement values
-                if (value.toString().equals("0")) {
-                    return true;
+                if (value instanceof Integer || value instanceof Long) {
+                    return ((Number) value).longValue() == 0;
                 }
+                return value.toString().equals("0");
             } else if (value == null) {
                 // skip null object autoincrement values
                 return true;
             }
-        } else {
+        } else if (value == null) {
             // conditionally skip insert of null
-            Object value = getValue(obj, field);
-            if (value == null) {
-                return !StringUtils.isNullOrEmpty(field.defaultValue);
-            }
+            return !StringUtils.isNullOrEmpty(field.defaultValue);
         }
         return false;
     }
@@ -720,12 +845,21 @@ public class TableDefinition<T> {
                     + " - no update possible");
         }
         SQLStatement stat = new SQLStatement(db);
+        stat.setModelClass(clazz);
         db.getDialect().prepareMerge(stat, schemaName, tableName, this, obj);
         IciqlLogger.merge(stat.getSQL());
         return stat.executeUpdate();
     }
 
     int update(Db db, Object obj) {
+        return createUpdate(db, obj).executeUpdate();
+    }
+
+    /**
+     * Builds the UPDATE statement and parameters for an object without
+     * executing it. The SQL is generated once per dialect.
+     */
+    SQLStatement createUpdate(Db db, Object obj) {
         if (!StringUtils.isNullOrEmpty(viewTableName)) {
             throw new IciqlException("Iciql does not support updating rows in views!");
         }
@@ -733,49 +867,50 @@ public class TableDefinition<T> {
             throw new IllegalStateException("No primary key columns defined for table " + obj.getClass()
                     + " - no update possible");
         }
+        SQLDialect dialect = db.getDialect();
+        CrudStatements crud = getCrudStatements(dialect);
+        String sql = crud.update;
+        if (sql == null) {
+            StatementBuilder buff = new StatementBuilder("UPDATE ");
+            buff.append(dialect.prepareTableName(schemaName, tableName)).append(" SET ");
+            buff.resetCount();
+            for (FieldDefinition field : fields) {
+                if (!field.isPrimaryKey) {
+                    buff.appendExceptFirst(", ");
+                    buff.append(dialect.prepareColumnName(field.columnName));
+                    buff.append(" = ?");
+                }
+            }
+            sql = buildPrimaryKeyCondition(dialect, buff.toString());
+            crud.update = sql;
+        }
         SQLStatement stat = new SQLStatement(db);
-        StatementBuilder buff = new StatementBuilder("UPDATE ");
-        buff.append(db.getDialect().prepareTableName(schemaName, tableName)).append(" SET ");
-        buff.resetCount();
-
+        stat.setModelClass(clazz);
+        stat.setSQL(sql);
         for (FieldDefinition field : fields) {
             if (!field.isPrimaryKey) {
                 Object value = getValue(obj, field);
                 if (value == null && !field.nullable) {
                     // try to interpret and instantiate a default value
-                    value = ModelUtils.getDefaultValue(field, db.getDialect().getDateTimeClass());
-                }
-                buff.appendExceptFirst(", ");
-                buff.append(db.getDialect().prepareColumnName(field.columnName));
-                buff.append(" = ?");
-                Object parameter = db.getDialect().serialize(value, field.typeAdapter);
-                stat.addParameter(parameter);
-            }
-        }
-        Object alias = Utils.newObject(obj.getClass());
-        Query<Object> query = Query.from(db, alias);
-        boolean firstCondition = true;
-        for (FieldDefinition field : fields) {
-            if (field.isPrimaryKey) {
-                Object fieldAlias = field.getValue(alias);
-                Object value = field.getValue(obj);
-                if (field.isPrimitive) {
-                    fieldAlias = query.getPrimitiveAliasByValue(fieldAlias);
+                    value = ModelUtils.getDefaultValue(field, dialect.getDateTimeClass());
                 }
-                if (!firstCondition) {
-                    query.addConditionToken(ConditionAndOr.AND);
-                }
-                firstCondition = false;
-                query.addConditionToken(new Condition<Object>(fieldAlias, value, CompareType.EQUAL));
+                stat.addParameter(dialect.serialize(value, field.typeAdapter), field);
             }
         }
-        stat.setSQL(buff.toString());
-        query.appendWhere(stat);
-        IciqlLogger.update(stat.getSQL());
-        return stat.executeUpdate();
+        addPrimaryKeyParameters(stat, dialect, obj);
+        IciqlLogger.update(sql);
+        return stat;
     }
 
     int delete(Db db, Object obj) {
+        return createDelete(db, obj).executeUpdate();
+    }
+
+    /**
+     * Builds the DELETE statement and parameters for an object without
+     * executing it. The SQL is generated once per dialect.
+     */
+    SQLStatement createDelete(Db db, Object obj) {
         if (!StringUtils.isNullOrEmpty(viewTableName)) {
             throw new IciqlException("Iciql does not support deleting rows from views!");
         }
@@ -783,31 +918,39 @@ public class TableDefinition<T> {
             throw new IllegalStateException("No primary key columns defined for table " + obj.getClass()
                     + " - no update possible");
         }
+        SQLDialect dialect = db.getDialect();
+        CrudStatements crud = getCrudStatements(dialect);
+        String sql = crud.delete;
+        if (sql == null) {
+            sql = buildPrimaryKeyCondition(dialect,
+                    "DELETE FROM " + dialect.prepareTableName(schemaName, tableName));
+            crud.delete = sql;
+        }
         SQLStatement stat = new SQLStatement(db);
-        StatementBuilder buff = new StatementBuilder("DELETE FROM ");
-        buff.append(db.getDialect().prepareTableName(schemaName, tableName));
-        buff.resetCount();
-        Object alias = Utils.newObject(obj.getClass());
-        Query<Object> query = Query.from(db, alias);
-        boolean firstCondition = true;
-        for (FieldDefinition field : fields) {
-            if (field.isPrimaryKey) {
-                Object fieldAlias = field.getValue(alias);
-                Object value = field.getValue(obj);
-                if (field.isPrimitive) {
-                    fieldAlias = query.getPrimitiveAliasByValue(fieldAlias);
-                }
-                if (!firstCondition) {
-                    query.addConditionToken(ConditionAndOr.AND);
-                }
-                firstCondition = false;
-                query.addConditionToken(new Condition<Object>(fieldAlias, value, CompareType.EQUAL));
-            }
+        stat.setModelClass(clazz);
+        stat.setSQL(sql);
+        addPrimaryKeyParameters(stat, dialect, obj);
+        IciqlLogger.delete(sql);
+        return stat;
+    }
+
+    /**
+     * Returns the statement text followed by the primary key WHERE clause.
+     */
+    private String buildPrimaryKeyCondition(SQLDialect dialect, String prefix) {
+        StatementBuilder buff = new StatementBuilder(prefix);
+        buff.append(" WHERE ");
+        for (FieldDefinition field : getPrimaryKeyFields()) {
+            buff.appendExceptFirst(" AND ");
+            buff.append(dialect.prepareColumnName(field.columnName)).append(" = ?");
+        }
+        return buff.toString();
+    }
+
+    private void addPrimaryKeyParameters(SQLStatement stat, SQLDialect dialect, Object obj) {
+        for (FieldDefinition field : getPrimaryKeyFields()) {
+            stat.addParameter(field.toParameter(dialect, field.getValue(obj)), field);
         }
-        stat.setSQL(buff.toString());
-        query.appendWhere(stat);
-        IciqlLogger.delete(stat.getSQL());
-        return stat.executeUpdate();
     }
 
     TableDefinition<T> createIfRequired(Db db) {
@@ -821,7 +964,7 @@ public class TableDefinition<T> {
             db.upgradeTable(this);
             return this;
         }
-        if (db.hasCreated(clazz)) {
+        if (db.hasCreated(this)) {
             return this;
         }
         SQLStatement stat = new SQLStatement(db);
@@ -1121,23 +1264,12 @@ public class TableDefinition<T> {
     }
 
     void readRow(SQLDialect dialect, Object item, ResultSet rs, int[] columns) {
-        for (int i = 0; i < fields.size(); i++) {
-            FieldDefinition def = fields.get(i);
-            Class<?> targetType = def.field.getType();
-            Object o;
-            if (targetType.isEnum()) {
-                Object obj;
-                try {
-                    obj = rs.getObject(columns[i]);
-                } catch (SQLException e) {
-                    throw new IciqlException(e);
-                }
-                o = Utils.convertEnum(obj, targetType, def.enumType);
-            } else {
-                o = dialect.deserialize(rs, columns[i], targetType, def.typeAdapter);
-            }
-            def.setValue(item, o);
+        RowMapper<T> mapper = rowMapper;
+        if (mapper == null) {
+            mapper = new RowMapper<T>(fields);
+            rowMapper = mapper;
         }
+        mapper.readRow(dialect, item, rs, columns);
     }
 
     void appendSelectList(SQLStatement stat) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.Iciql.Mode;
+import com.iciql.util.ConcurrentWeakIdentityHashMap;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide registry of the table definitions of model classes.
+ * <p>
+ * A definition which has been completely mapped by one Db is shared with the
+ * other Db instances of the same dialect class and Mode. The mapping resolves
+ * the type adapters through the dialect, which configures them with the Mode
+ * of its Db, so definitions are not shared across modes. A Db keeps the
+ * definitions it uses in its own map and only consults the registry for
+ * models it has not defined yet.
+ * <p>
+ * The model and dialect classes are held by weak keys and the definitions by
+ * weak references, so the registry does not prevent a class loader from
+ * being unloaded.
+ */
+final class TableDefinitionRegistry {
+
+    private static final ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentWeakIdentityHashMap<Class<?>,
+            ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>>> DEFINITIONS =
+            new ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentWeakIdentityHashMap<Class<?>,
+                    ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>>>();
+
+    private TableDefinitionRegistry() {
+    }
+
+    /**
+     * Returns the shared definition of a model class.
+     *
+     * @param dialectClass the dialect class
+     * @param mode         the mode of the Db
+     * @param modelClass   the model class
+     * @return the definition or null if the model has not been registered
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TableDefinition<T> get(Class<? extends SQLDialect> dialectClass, Mode mode, Class<T> modelClass) {
+        ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>> definitions =
+                getDefinitions(modelClass, dialectClass, false);
+        WeakReference<TableDefinition<?>> ref = definitions == null ? null : definitions.get(mode);
+        return ref == null ? null : (TableDefinition<T>) ref.get();
+    }
+
+    /**
+     * Registers a completely mapped definition. If another definition of the
+     * model has been registered concurrently, that definition is returned.
+     *
+     * @param dialectClass the dialect class
+     * @param mode         the mode of the Db
+     * @param def          the table definition
+     * @return the registered definition
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TableDefinition<T> register(Class<? extends SQLDialect> dialectClass, Mode mode,
+                                           TableDefinition<T> def) {
+        ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>> definitions =
+                getDefinitions(def.getModelClass(), dialectClass, true);
+        WeakReference<TableDefinition<?>> ref = new WeakReference<TableDefinition<?>>(def);
+        WeakReference<TableDefinition<?>> existing = definitions.putIfAbsent(mode, ref);
+        TableDefinition<?> other = existing == null ? null : existing.get();
+        if (other != null) {
+            return (TableDefinition<T>) other;
+        } else if (existing != null) {
+            // the definition of the existing entry was collected
+            definitions.put(mode, ref);
+        }
+        return def;
+    }
+
+    private static ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>> getDefinitions(
+            Class<?> modelClass, Class<?> dialectClass, boolean create) {
+        ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>> dialects =
+                DEFINITIONS.get(modelClass);
+        if (dialects == null) {
+            if (!create) {
+                return null;
+            }
+            dialects = new ConcurrentWeakIdentityHashMap<Class<?>,
+                    ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>>();
+            ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>>
+                    existing = DEFINITIONS.putIfAbsent(modelClass, dialects);
+            if (existing != null) {
+                dialects = existing;
+            }
+        }
+        ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>> definitions = dialects.get(dialectClass);
+        if (definitions == null && create) {
+            definitions = new ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>>();
+            ConcurrentHashMap<Mode, WeakReference<TableDefinition<?>>> existing = dialects.putIfAbsent(
+                    dialectClass, definitions);
+            if (existing != null) {
+                definitions = existing;
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Removes the definitions of a model class for all dialects.
+     *
+     * @param modelClass the model class
+     */
+    static void invalidate(Class<?> modelClass) {
+        DEFINITIONS.remove(modelClass);
+    }
+
+    /**
+     * Removes all definitions.
+     */
+    static void clear() {
+        DEFINITIONS.clear();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql;
+
+import com.iciql.util.IciqlLogger;
+import com.iciql.util.Utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A transaction of a Db, started with Db.beginTransaction().
+ * <p>
+ * Auto-commit is turned off once for the whole transaction. The bulk
+ * methods insertAll, updateAll and deleteAll of the Db do not set their own
+ * savepoints while a transaction is active, so a sequence of bulk calls is
+ * committed or rolled back as one unit.
+ * <p>
+ * Closing a transaction which was not committed rolls it back. The
+ * auto-commit mode, isolation level and read-only flag of the connection
+ * are restored when the transaction ends.
+ * <p>
+ * <pre>
+ * Transaction t = db.beginTransaction();
+ * try {
+ *     db.insertAll(orders);
+ *     db.updateAll(products);
+ *     t.commit();
+ * } finally {
+ *     t.close();
+ * }
+ * </pre>
+ */
+public class Transaction implements AutoCloseable {
+
+    /**
+     * Keeps the isolation level of the connection.
+     */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    private final Db db;
+    private final Connection conn;
+    private final boolean autoCommit;
+    private final int isolation;
+    private final boolean readOnly;
+    private final int requestedIsolation;
+    private final boolean requestedReadOnly;
+    private final List<TableDefinition<?>> checkedTables = Utils.newArrayList();
+    private boolean active;
+
+    Transaction(Db db, int isolation, boolean readOnly) {
+        this.db = db;
+        this.conn = db.getConnection();
+        this.requestedIsolation = isolation;
+        this.requestedReadOnly = readOnly;
+        try {
+            this.autoCommit = conn.getAutoCommit();
+            if (isolation == DEFAULT_ISOLATION) {
+                this.isolation = DEFAULT_ISOLATION;
+            } else {
+                this.isolation = conn.getTransactionIsolation();
+                conn.setTransactionIsolation(isolation);
+            }
+        } catch (SQLException e) {
+            throw new IciqlException(e, "Could not begin transaction");
+        }
+        this.readOnly = readOnly && setReadOnly(true);
+        try {
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+        } catch (SQLException e) {
+            restore();
+            throw new IciqlException(e, "Could not change auto-commit mode");
+        }
+        this.active = true;
+    }
+
+    /**
+     * Returns the isolation level the transaction was begun with.
+     *
+     * @return the Connection.TRANSACTION_* isolation level or DEFAULT_ISOLATION
+     */
+    public int getIsolation() {
+        return requestedIsolation;
+    }
+
+    /**
+     * Returns true if the transaction was begun with the read-only hint.
+     *
+     * @return true if the transaction is read-only
+     */
+    public boolean isReadOnly() {
+        return requestedReadOnly;
+    }
+
+    /**
+     * Returns true until the transaction is committed or rolled back.
+     *
+     * @return true if the transaction is active
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Commits the transaction.
+     */
+    public void commit() {
+        checkActive();
+        try {
+            conn.commit();
+        } catch (SQLException e) {
+            // the caller rolls back on close
+            throw new IciqlException(e, "Failed to commit pending transactions");
+        }
+        end();
+    }
+
+    /**
+     * Rolls back the transaction.
+     */
+    public void rollback() {
+        checkActive();
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            throw new IciqlException(e, "Failed to rollback transactions");
+        } finally {
+            // tables created in the transaction may have been rolled back
+            db.uncheckTables(checkedTables);
+            end();
+        }
+    }
+
+    /**
+     * Rolls back the transaction if it is still active.
+     */
+    @Override
+    public void close() {
+        if (active) {
+            rollback();
+        }
+    }
+
+    /**
+     * Records a table whose creation or upgrade was checked in this
+     * transaction.
+     */
+    void checkedTable(TableDefinition<?> def) {
+        checkedTables.add(def);
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IciqlException("The transaction is not active");
+        }
+    }
+
+    private void end() {
+        active = false;
+        db.endTransaction(this);
+        if (autoCommit) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                throw new IciqlException(e, "Could not change auto-commit mode");
+            }
+        }
+        restore();
+    }
+
+    /**
+     * Restores the read-only flag and the isolation level.
+     */
+    private void restore() {
+        if (readOnly) {
+            setReadOnly(false);
+        }
+        if (isolation != DEFAULT_ISOLATION) {
+            try {
+                conn.setTransactionIsolation(isolation);
+            } catch (SQLException e) {
+                throw new IciqlException(e, "Could not restore the transaction isolation level");
+            }
+        }
+    }
+
+    /**
+     * Sets the read-only hint of the connection. Drivers which can not change
+     * the flag of an open connection are logged and ignored.
+     */
+    private boolean setReadOnly(boolean value) {
+        try {
+            conn.setReadOnly(value);
+            return true;
+        } catch (SQLException e) {
+            IciqlLogger.warn("Could not change the read-only mode: {0}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * An AND expression.
  */
-public class And implements Token {
+public class And implements Token, Template {
 
     private final Token left, right;
 
@@ -43,4 +45,8 @@ public class And implements Token {
         right.appendSQL(stat, query);
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new And(ClassReader.bind(left, fields), ClassReader.bind(right, fields));
+    }
+
 }
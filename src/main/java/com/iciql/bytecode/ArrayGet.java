@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * An array access operation.
  */
-public class ArrayGet implements Token {
+public class ArrayGet implements Token, Template {
 
     private final Token variable;
     private final Token index;
@@ -46,4 +48,8 @@ public class ArrayGet implements Token {
         stat.appendSQL("]");
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new ArrayGet(ClassReader.bind(variable, fields), ClassReader.bind(index, fields));
+    }
+
 }
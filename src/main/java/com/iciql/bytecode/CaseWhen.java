@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * A conditional expression.
  */
-public class CaseWhen implements Token {
+public class CaseWhen implements Token, Template {
 
     private final Token condition, ifTrue, ifFalse;
 
@@ -59,4 +61,9 @@ public class CaseWhen implements Token {
         stat.appendSQL(" END");
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new CaseWhen(ClassReader.bind(condition, fields), ClassReader.bind(ifTrue, fields),
+                ClassReader.bind(ifFalse, fields));
+    }
+
 }
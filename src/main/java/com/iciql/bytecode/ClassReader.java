@@ -19,14 +19,15 @@ package com.iciql.bytecode;
 
 import com.iciql.IciqlException;
 import com.iciql.Token;
+import com.iciql.util.ConcurrentWeakIdentityHashMap;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class converts a method to a SQL Token by interpreting (decompiling) the
@@ -36,6 +37,12 @@ public class ClassReader {
 
     private static final boolean DEBUG = false;
 
+    /**
+     * The decompiled methods by filter class and method name.
+     */
+    private static final Map<Class<?>, ConcurrentHashMap<String, Token>> TEMPLATES =
+            new ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentHashMap<String, Token>>();
+
     private byte[] data;
     private int pos;
     private Constant[] constantPool;
@@ -49,7 +56,6 @@ public class ClassReader {
     private boolean endOfMethod;
     private boolean condition;
     private int nextPc;
-    private Map<String, Object> fieldMap = new HashMap<String, Object>();
 
     private static void debug(String s) {
         if (DEBUG) {
@@ -57,25 +63,71 @@ public class ClassReader {
         }
     }
 
+    /**
+     * Decompiles a method of an instance. The bytecode of a class is only
+     * read and decompiled once per method, the decompiled token tree is
+     * cached and bound to the field values of each instance.
+     *
+     * @param instance the instance
+     * @param fields   the field values of the instance by name
+     * @param method   the method name
+     * @return the token tree
+     */
     public Token decompile(Object instance, Map<String, Object> fields, String method) {
-        this.fieldMap = fields;
-        this.convertMethodName = method;
         Class<?> clazz = instance.getClass();
+        ConcurrentHashMap<String, Token> methods = TEMPLATES.get(clazz);
+        if (methods == null) {
+            methods = new ConcurrentHashMap<String, Token>();
+            TEMPLATES.put(clazz, methods);
+        }
+        Token template = methods.get(method);
+        if (template == null) {
+            template = decompile(clazz, method);
+            if (template == null) {
+                return null;
+            }
+            methods.put(method, template);
+        }
+        return bind(template, fields);
+    }
+
+    /**
+     * Binds the variables of a token tree to the field values.
+     *
+     * @param token  the token, may be null
+     * @param fields the field values by name
+     * @return the bound token
+     */
+    static Token bind(Token token, Map<String, Object> fields) {
+        if (token instanceof Template) {
+            return ((Template) token).bind(fields);
+        }
+        return token;
+    }
+
+    private Token decompile(Class<?> clazz, String method) {
+        this.convertMethodName = method;
         String className = clazz.getName();
         debug("class name " + className);
         ByteArrayOutputStream buff = new ByteArrayOutputStream();
+        InputStream in = null;
         try {
-            InputStream in = clazz.getClassLoader().getResource(className.replace('.', '/') + ".class")
-                    .openStream();
-            while (true) {
-                int x = in.read();
-                if (x < 0) {
-                    break;
-                }
-                buff.write(x);
+            in = clazz.getClassLoader().getResource(className.replace('.', '/') + ".class").openStream();
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                buff.write(buffer, 0, len);
             }
         } catch (IOException e) {
             throw new IciqlException("Could not read class bytecode", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
         }
         data = buff.toByteArray();
         int header = readInt();
@@ -1217,7 +1269,7 @@ public class ClassReader {
                 if (s.startsWith("this.")) {
                     s = s.substring(5);
                 }
-                stack.push(Variable.get(s, fieldMap.get(s)));
+                stack.push(Variable.field(s));
                 op = "getfield " + field;
                 break;
             }
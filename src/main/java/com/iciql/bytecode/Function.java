@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * A method call.
  */
-class Function implements Token {
+class Function implements Token, Template {
 
     private final String name;
     private final Token expr;
@@ -44,4 +46,9 @@ class Function implements Token {
         expr.appendSQL(stat, query);
         stat.appendSQL(")");
     }
+
+    public Token bind(Map<String, Object> fields) {
+        return new Function(name, ClassReader.bind(expr, fields));
+    }
+
 }
@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * A NOT condition.
  */
-public class Not implements Token {
+public class Not implements Token, Template {
 
     private Token expr;
 
@@ -52,4 +54,8 @@ public class Not implements Token {
         stat.appendSQL(")");
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new Not(ClassReader.bind(expr, fields));
+    }
+
 }
@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * A mathematical or comparison operation.
  */
-class Operation implements Token {
+class Operation implements Token, Template {
 
     /**
      * The operation type.
@@ -108,4 +110,8 @@ class Operation implements Token {
         right.appendSQL(stat, query);
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new Operation(ClassReader.bind(left, fields), op, ClassReader.bind(right, fields));
+    }
+
 }
@@ -21,10 +21,12 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * An OR expression.
  */
-public class Or implements Token {
+public class Or implements Token, Template {
 
     private final Token left, right;
 
@@ -44,4 +46,8 @@ public class Or implements Token {
         right.appendSQL(stat, query);
     }
 
+    public Token bind(Map<String, Object> fields) {
+        return new Or(ClassReader.bind(left, fields), ClassReader.bind(right, fields));
+    }
+
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.bytecode;
+
+import com.iciql.Token;
+
+import java.util.Map;
+
+/**
+ * A decompiled token which references the fields of a filter instance.
+ * Templates are cached per filter class and bound to the field values of
+ * each filter instance.
+ */
+interface Template {
+
+    /**
+     * Returns a copy of this token with the variables bound to the field
+     * values.
+     *
+     * @param fields the field values by name
+     * @return the bound token
+     */
+    Token bind(Map<String, Object> fields);
+
+}
@@ -21,23 +21,38 @@ import com.iciql.Query;
 import com.iciql.SQLStatement;
 import com.iciql.Token;
 
+import java.util.Map;
+
 /**
  * A variable.
  */
-public class Variable implements Token {
+public class Variable implements Token, Template {
 
-    static final Variable THIS = new Variable("this", null);
+    static final Variable THIS = new Variable("this", null, false);
 
     private final String name;
     private final Object obj;
+    private final boolean field;
 
-    private Variable(String name, Object obj) {
+    private Variable(String name, Object obj, boolean field) {
         this.name = name;
         this.obj = obj;
+        this.field = field;
     }
 
     static Variable get(String name, Object obj) {
-        return new Variable(name, obj);
+        return new Variable(name, obj, false);
+    }
+
+    /**
+     * Returns a variable which is bound to the value of a field of the filter
+     * instance.
+     *
+     * @param name the field name
+     * @return the variable
+     */
+    static Variable field(String name) {
+        return new Variable(name, null, true);
     }
 
     public String toString() {
@@ -48,4 +63,11 @@ public class Variable implements Token {
         query.appendSQL(stat, null, obj);
     }
 
+    public Token bind(Map<String, Object> fields) {
+        if (!field) {
+            return this;
+        }
+        return new Variable(name, fields.get(name), false);
+    }
+
 }
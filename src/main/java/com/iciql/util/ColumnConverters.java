@@ -0,0 +1,309 @@
+/*
+ * Copyright 2004-2011 H2 Group.
+ * Copyright 2011 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+import com.iciql.IciqlException;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.util.Date;
+
+/**
+ * Registry of the converters between Java types.
+ * <p>
+ * The conversion of a source type to a target type is resolved once and
+ * cached, so converting a value does not repeat the type checks. The cache
+ * holds the types weakly and the cached converters do not reference them, so
+ * a model class loader can be unloaded.
+ */
+public final class ColumnConverters {
+
+    private static final ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentWeakIdentityHashMap<Class<?>, ColumnConverter>> CONVERTERS =
+            new ConcurrentWeakIdentityHashMap<Class<?>, ConcurrentWeakIdentityHashMap<Class<?>, ColumnConverter>>();
+
+    private ColumnConverters() {
+    }
+
+    /**
+     * Returns the converter of values of the source type to the target type.
+     * If the types can not be converted the converter throws an
+     * IciqlException.
+     *
+     * @param sourceType the class of the values
+     * @param targetType the class to convert to
+     * @return the converter
+     */
+    public static ColumnConverter get(Class<?> sourceType, Class<?> targetType) {
+        ConcurrentWeakIdentityHashMap<Class<?>, ColumnConverter> converters = CONVERTERS.get(targetType);
+        if (converters == null) {
+            converters = new ConcurrentWeakIdentityHashMap<Class<?>, ColumnConverter>();
+            ConcurrentWeakIdentityHashMap<Class<?>, ColumnConverter> existing = CONVERTERS.putIfAbsent(
+                    targetType, converters);
+            if (existing != null) {
+                converters = existing;
+            }
+        }
+        ColumnConverter converter = converters.get(sourceType);
+        if (converter == null) {
+            converter = resolve(sourceType, targetType);
+            converters.put(sourceType, converter);
+        }
+        return converter;
+    }
+
+    private static ColumnConverter resolve(Class<?> currentType, Class<?> targetType) {
+        if (targetType.isAssignableFrom(currentType)) {
+            return IDENTITY;
+        }
+
+        // convert from CLOB/TEXT/VARCHAR to String
+        if (targetType == String.class) {
+            if (Clob.class.isAssignableFrom(currentType)) {
+                return CLOB_TO_STRING;
+            }
+            return TO_STRING;
+        }
+
+        if (Boolean.class.isAssignableFrom(targetType) || boolean.class.isAssignableFrom(targetType)) {
+            // convert from number to boolean
+            if (Number.class.isAssignableFrom(currentType)) {
+                return NUMBER_TO_BOOLEAN;
+            }
+            // convert from string to boolean
+            if (String.class.isAssignableFrom(currentType)) {
+                return STRING_TO_BOOLEAN;
+            }
+        }
+
+        // convert from boolean to number
+        if (Boolean.class.isAssignableFrom(currentType)) {
+            ColumnConverter converter = fromBoolean(targetType);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        // convert from number to number
+        if (Number.class.isAssignableFrom(currentType)) {
+            ColumnConverter converter = fromNumber(targetType);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        if (Date.class.isAssignableFrom(currentType)) {
+            ColumnConverter converter = fromDate(targetType);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        // convert from BLOB
+        if (targetType == byte[].class) {
+            if (Blob.class.isAssignableFrom(currentType)) {
+                return BLOB_TO_BYTES;
+            }
+        }
+        // the names, not the classes, so the cached converter does not pin them
+        final String currentName = currentType.toString();
+        final String targetName = targetType.toString();
+        return new ColumnConverter() {
+            @Override
+            public Object convert(Object o) {
+                throw new IciqlException("Can not convert the value {0} from {1} to {2}", o, currentName,
+                        targetName);
+            }
+        };
+    }
+
+    private static ColumnConverter fromBoolean(final Class<?> targetType) {
+        if (Number.class.isAssignableFrom(targetType) || int.class == targetType) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return ((Boolean) o) ? 1 : 0;
+                }
+            };
+        } else if (byte.class == targetType || short.class == targetType || long.class == targetType
+                || float.class == targetType || double.class == targetType) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return convertNumber((Boolean) o ? 1 : 0, targetType);
+                }
+            };
+        } else if (boolean.class == targetType) {
+            return IDENTITY;
+        }
+        return null;
+    }
+
+    private static ColumnConverter fromNumber(final Class<?> targetType) {
+        if (targetType == byte.class || targetType == Byte.class || targetType == short.class
+                || targetType == Short.class || targetType == int.class || targetType == Integer.class
+                || targetType == long.class || targetType == Long.class || targetType == double.class
+                || targetType == Double.class || targetType == float.class || targetType == Float.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return convertNumber((Number) o, targetType);
+                }
+            };
+        } else if (targetType == BigDecimal.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new BigDecimal(((Number) o).doubleValue());
+                }
+            };
+        } else if (targetType == java.util.Date.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.util.Date(((Number) o).longValue());
+                }
+            };
+        } else if (targetType == java.sql.Date.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Date(((Number) o).longValue());
+                }
+            };
+        } else if (targetType == java.sql.Time.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Time(((Number) o).longValue());
+                }
+            };
+        } else if (targetType == java.sql.Timestamp.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Timestamp(((Number) o).longValue());
+                }
+            };
+        }
+        return null;
+    }
+
+    private static ColumnConverter fromDate(Class<?> targetType) {
+        if (targetType == java.sql.Date.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Date(((Date) o).getTime());
+                }
+            };
+        } else if (targetType == java.sql.Time.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Time(((Date) o).getTime());
+                }
+            };
+        } else if (targetType == java.sql.Timestamp.class) {
+            return new ColumnConverter() {
+                @Override
+                public Object convert(Object o) {
+                    return new java.sql.Timestamp(((Date) o).getTime());
+                }
+            };
+        }
+        return null;
+    }
+
+    private static Object convertNumber(Number n, Class<?> targetType) {
+        if (targetType == byte.class || targetType == Byte.class) {
+            return n.byteValue();
+        } else if (targetType == short.class || targetType == Short.class) {
+            return n.shortValue();
+        } else if (targetType == int.class || targetType == Integer.class) {
+            return n.intValue();
+        } else if (targetType == long.class || targetType == Long.class) {
+            return n.longValue();
+        } else if (targetType == double.class || targetType == Double.class) {
+            return n.doubleValue();
+        }
+        return n.floatValue();
+    }
+
+    private static final ColumnConverter IDENTITY = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            return o;
+        }
+    };
+
+    private static final ColumnConverter TO_STRING = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            return o.toString();
+        }
+    };
+
+    private static final ColumnConverter CLOB_TO_STRING = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            Clob c = (Clob) o;
+            try {
+                Reader r = c.getCharacterStream();
+                return Utils.readStringAndClose(r, -1);
+            } catch (Exception e) {
+                throw new IciqlException(e, "error converting CLOB to String: ", e.toString());
+            }
+        }
+    };
+
+    private static final ColumnConverter BLOB_TO_BYTES = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            Blob b = (Blob) o;
+            try {
+                InputStream is = b.getBinaryStream();
+                return Utils.readBlobAndClose(is, -1);
+            } catch (Exception e) {
+                throw new IciqlException(e, "error converting BLOB to byte[]: ", e.toString());
+            }
+        }
+    };
+
+    private static final ColumnConverter NUMBER_TO_BOOLEAN = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            return ((Number) o).intValue() > 0;
+        }
+    };
+
+    private static final ColumnConverter STRING_TO_BOOLEAN = new ColumnConverter() {
+        @Override
+        public Object convert(Object o) {
+            String s = o.toString().toLowerCase();
+            float f = 0f;
+            try {
+                f = Float.parseFloat(s);
+            } catch (Exception e) {
+            }
+            return f > 0 || s.equals("true") || s.equals("yes") || s.equals("y") || s.equals("on");
+        }
+    };
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2004-2011 H2 Group.
+ * Copyright 2011 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe hash map that uses weak references and object identity to
+ * compare keys, so that elements that are no longer referenced elsewhere can
+ * be garbage collected. Reads do not lock and writes only lock a segment of
+ * the backing ConcurrentHashMap. Entries of collected keys are removed when
+ * new data is added or removed.
+ *
+ * @param <K> the keys
+ * @param <V> the value
+ */
+
+public class ConcurrentWeakIdentityHashMap<K, V> implements Map<K, V> {
+
+    private final ConcurrentMap<Object, V> map;
+    private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+    public ConcurrentWeakIdentityHashMap() {
+        map = new ConcurrentHashMap<Object, V>();
+    }
+
+    public ConcurrentWeakIdentityHashMap(int initialCapacity, int concurrencyLevel) {
+        map = new ConcurrentHashMap<Object, V>(initialCapacity, 0.75f, concurrencyLevel);
+    }
+
+    public int size() {
+        expunge();
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        return map.get(new LookupKey(key));
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public boolean containsValue(Object value) {
+        return value != null && map.containsValue(value);
+    }
+
+    public V put(K key, V value) {
+        expunge();
+        return map.put(new WeakKey<K>(key, queue), value);
+    }
+
+    /**
+     * Associates the value with the key if the key is not already mapped.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, or null if the value was added
+     */
+    public V putIfAbsent(K key, V value) {
+        expunge();
+        return map.putIfAbsent(new WeakKey<K>(key, queue), value);
+    }
+
+    public V remove(Object key) {
+        expunge();
+        if (key == null) {
+            return null;
+        }
+        return map.remove(new LookupKey(key));
+    }
+
+    public void clear() {
+        map.clear();
+        while (queue.poll() != null) {
+            // discard
+        }
+    }
+
+    private void expunge() {
+        Object ref;
+        while ((ref = queue.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        throw new UnsupportedOperationException();
+    }
+
+    public Set<K> keySet() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    public Collection<V> values() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A key which compares referents by identity.
+     */
+    private interface IdentityKey {
+        Object referent();
+    }
+
+    /**
+     * The stored key. A collected key is only equal to itself, so it can
+     * still be removed after its referent is gone.
+     */
+    private static class WeakKey<K> extends WeakReference<K> implements IdentityKey {
+
+        private final int hash;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            hash = System.identityHashCode(key);
+        }
+
+        public Object referent() {
+            return get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            Object r = get();
+            return r != null && o instanceof IdentityKey && ((IdentityKey) o).referent() == r;
+        }
+    }
+
+    /**
+     * A short-lived key to look up an entry without creating a reference.
+     */
+    private static class LookupKey implements IdentityKey {
+
+        private final Object key;
+
+        LookupKey(Object key) {
+            this.key = key;
+        }
+
+        public Object referent() {
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).referent() == key;
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2004-2011 H2 Group.
+ * Copyright 2011 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+import com.iciql.Iciql.EnumId;
+import com.iciql.Iciql.EnumType;
+import com.iciql.IciqlException;
+
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.sql.Clob;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lookup tables of the constants of an enum class by name, ordinal and
+ * EnumId. The tables are built once per enum class and are cached with weak
+ * references, because they reference the enum class and its constants.
+ */
+public final class EnumLookup {
+
+    private static final ConcurrentWeakIdentityHashMap<Class<?>, WeakReference<EnumLookup>> LOOKUPS =
+            new ConcurrentWeakIdentityHashMap<Class<?>, WeakReference<EnumLookup>>();
+
+    private final Class<?> enumClass;
+    private final Enum<?>[] byOrdinal;
+    private final Map<String, Enum<?>> byName;
+    private final Map<Object, Enum<?>> byEnumId;
+
+    private EnumLookup(Class<?> enumClass) {
+        this.enumClass = enumClass;
+        this.byOrdinal = (Enum[]) enumClass.getEnumConstants();
+        this.byName = new TreeMap<String, Enum<?>>(String.CASE_INSENSITIVE_ORDER);
+        this.byEnumId = new HashMap<Object, Enum<?>>();
+        for (Enum<?> value : byOrdinal) {
+            // the first constant wins, like a linear scan
+            if (!byName.containsKey(value.name())) {
+                byName.put(value.name(), value);
+            }
+            if (value instanceof EnumId) {
+                Object enumId = ((EnumId<?>) value).enumId();
+                if (enumId != null && !byEnumId.containsKey(enumId)) {
+                    byEnumId.put(enumId, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the lookup tables of an enum class.
+     *
+     * @param enumClass the enum class
+     * @return the lookup tables
+     */
+    public static EnumLookup of(Class<?> enumClass) {
+        WeakReference<EnumLookup> ref = LOOKUPS.get(enumClass);
+        EnumLookup lookup = ref == null ? null : ref.get();
+        if (lookup == null) {
+            lookup = new EnumLookup(enumClass);
+            WeakReference<EnumLookup> existing = LOOKUPS.putIfAbsent(enumClass,
+                    new WeakReference<EnumLookup>(lookup));
+            EnumLookup other = existing == null ? null : existing.get();
+            if (other != null) {
+                lookup = other;
+            } else if (existing != null) {
+                // the lookup of the existing entry was collected
+                LOOKUPS.put(enumClass, new WeakReference<EnumLookup>(lookup));
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * Converts a column value to the enum constant it maps to.
+     *
+     * @param o    the column value
+     * @param type the mapping of the enum
+     * @return the enum constant or null if the value is null
+     */
+    public Object convert(Object o, EnumType type) {
+        if (o == null) {
+            return null;
+        }
+        Class<?> currentType = o.getClass();
+        if (enumClass.isAssignableFrom(currentType)) {
+            return o;
+        }
+        // convert from VARCHAR/TEXT/INT to Enum
+        Enum<?> value = null;
+        if (Clob.class.isAssignableFrom(currentType)) {
+            // TEXT/CLOB field
+            Clob c = (Clob) o;
+            String name = null;
+            try {
+                Reader r = c.getCharacterStream();
+                name = Utils.readStringAndClose(r, -1);
+            } catch (Exception e) {
+                throw new IciqlException(e, "error converting CLOB to String: ", e.toString());
+            }
+            value = byName(name, type);
+        } else if (String.class.isAssignableFrom(currentType)) {
+            // VARCHAR field
+            value = byName((String) o, type);
+        } else if (Number.class.isAssignableFrom(currentType)) {
+            // INT field
+            int n = ((Number) o).intValue();
+            if (type.equals(EnumType.ORDINAL)) {
+                if (n >= 0 && n < byOrdinal.length) {
+                    value = byOrdinal[n];
+                }
+            } else if (type.equals(EnumType.ENUMID)) {
+                checkEnumId(o, currentType);
+                value = byEnumId.get(n);
+            }
+        } else if (type.equals(EnumType.ENUMID)) {
+            // custom object mapping
+            checkEnumId(o, currentType);
+            value = byEnumId.get(o);
+        }
+        if (value == null) {
+            throw new IciqlException("Can not convert the value {0} from {1} to {2}", o, currentType, enumClass);
+        }
+        return value;
+    }
+
+    private Enum<?> byName(String name, EnumType type) {
+        if (name == null) {
+            return null;
+        } else if (type.equals(EnumType.ENUMID)) {
+            // ENUMID mapping
+            return byEnumId.get(name);
+        } else if (type.equals(EnumType.NAME)) {
+            // standard Enum.name() mapping
+            return byName.get(name);
+        }
+        return null;
+    }
+
+    private void checkEnumId(Object o, Class<?> currentType) {
+        if (!EnumId.class.isAssignableFrom(enumClass)) {
+            throw new IciqlException("Can not convert the value {0} from {1} to {2} using ENUMID", o,
+                    currentType, enumClass);
+        }
+    }
+}
@@ -20,15 +20,24 @@ import com.iciql.IciqlException;
 
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class to optionally log generated statements to IciqlListeners.<br>
  * Statement logging is disabled by default.
  * <p>
+ * Statements are queued in a bounded buffer and delivered to the listeners
+ * in batches by a single daemon thread. The OverflowPolicy decides what
+ * happens to statements while the buffer is full. No work is done for a
+ * statement if no listeners are registered. The buffer size defaults to the
+ * system property iciql.logger.bufferSize, or 8192.
+ * <p>
  * This class also tracks the counts for generated statements by major type.
  */
 public class IciqlLogger {
@@ -37,7 +46,7 @@ public class IciqlLogger {
      * Enumeration of the different statement types that are logged.
      */
     public enum StatementType {
-        STAT, TOTAL, CREATE, INSERT, UPDATE, MERGE, DELETE, SELECT, DROP, WARN;
+        STAT, TOTAL, CREATE, INSERT, UPDATE, MERGE, DELETE, SELECT, DROP, WARN, SLOW;
     }
 
     /**
@@ -47,8 +56,51 @@ public class IciqlLogger {
         void logIciql(StatementType type, String statement);
     }
 
-    private static final ExecutorService EXEC = Executors.newSingleThreadExecutor();
-    private static final Set<IciqlListener> LISTENERS = Utils.newHashSet();
+    /**
+     * Enumeration of the policies for statements logged while the buffer is
+     * full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Statements are dropped while the buffer is full.
+         */
+        DROP,
+
+        /**
+         * Only every n-th statement is queued while the buffer is more than
+         * half full, statements are dropped while the buffer is full.
+         */
+        SAMPLE,
+
+        /**
+         * The logging thread waits until the buffer has room.
+         */
+        BLOCK;
+    }
+
+    /**
+     * The default capacity of the statement buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum number of statements delivered per batch.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private static final Set<IciqlListener> LISTENERS = new CopyOnWriteArraySet<IciqlListener>();
+    private static final AtomicBoolean DISPATCHING = new AtomicBoolean();
+    private static final Object DELIVERED = new Object();
+    private static final AtomicLong QUEUED_COUNT = new AtomicLong();
+    private static final AtomicLong DELIVERED_COUNT = new AtomicLong();
+    private static final AtomicLong DROPPED_COUNT = new AtomicLong();
+    private static final AtomicLong SAMPLE_COUNT = new AtomicLong();
+    private static volatile BlockingQueue<Event> buffer = new ArrayBlockingQueue<Event>(
+            Math.max(1, Integer.getInteger("iciql.logger.bufferSize", DEFAULT_BUFFER_SIZE)));
+    private static volatile Thread dispatcher;
+    private static volatile int flushWaiters;
+    private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private static volatile int sampleRate = 10;
     private static final IciqlListener CONSOLE = new IciqlListener() {
 
         @Override
@@ -65,6 +117,7 @@ public class IciqlLogger {
     private static final AtomicLong DELETE_COUNT = new AtomicLong();
     private static final AtomicLong DROP_COUNT = new AtomicLong();
     private static final AtomicLong WARN_COUNT = new AtomicLong();
+    private static final AtomicLong SLOW_COUNT = new AtomicLong();
 
     /**
      * Activates the Console Logger.
@@ -137,16 +190,239 @@ public class IciqlLogger {
 
     public static void warn(String message, Object... args) {
         WARN_COUNT.incrementAndGet();
+        if (LISTENERS.isEmpty()) {
+            return;
+        }
         logStatement(StatementType.WARN, args.length > 0 ? MessageFormat.format(message, args) : message);
     }
 
-    private static void logStatement(final StatementType type, final String statement) {
-        for (final IciqlListener listener : LISTENERS) {
-            EXEC.execute(new Runnable() {
+    /**
+     * Logs a statement which exceeded the slow statement threshold.
+     *
+     * @param message the statement and its timings
+     */
+    public static void slow(String message) {
+        SLOW_COUNT.incrementAndGet();
+        logStatement(StatementType.SLOW, message);
+    }
+
+    /**
+     * Sets the policy for statements logged while the buffer is full. The
+     * default policy is DROP.
+     *
+     * @param policy
+     */
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
+    public static OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets the sample rate of the SAMPLE policy: one of every n statements is
+     * queued while the buffer is more than half full. The default rate is 10.
+     *
+     * @param n
+     */
+    public static void setSampleRate(int n) {
+        sampleRate = Math.max(1, n);
+    }
+
+    /**
+     * Sets the capacity of the statement buffer. The new buffer replaces the
+     * old one before the delivery thread is stopped, the statements still
+     * queued are then moved to the new buffer and those which do not fit are
+     * dropped.
+     *
+     * @param size the buffer capacity
+     */
+    public static synchronized void setBufferSize(int size) {
+        if (size < 1) {
+            throw new IciqlException("Invalid logger buffer size {0}", size);
+        }
+        BlockingQueue<Event> old = buffer;
+        BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(size);
+        // a delivery thread started from now on takes from the new buffer
+        buffer = queue;
+        shutdown();
+        Event event;
+        while ((event = old.poll()) != null) {
+            if (!queue.offer(event)) {
+                DROPPED_COUNT.incrementAndGet();
+                // counted as queued, do not let flush() wait for it
+                DELIVERED_COUNT.incrementAndGet();
+            }
+        }
+        if (!queue.isEmpty()) {
+            startDispatcher();
+        }
+    }
+
+    public static int getBufferSize() {
+        BlockingQueue<Event> queue = buffer;
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    /**
+     * Stops the delivery thread. Statements still queued are delivered by a
+     * new thread when the next statement is logged, call flush() first to
+     * deliver them now.
+     */
+    public static synchronized void shutdown() {
+        Thread thread = dispatcher;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of statements which were not delivered to the
+     * listeners because the buffer was full.
+     *
+     * @return the dropped count
+     */
+    public static long getDroppedCount() {
+        return DROPPED_COUNT.longValue();
+    }
+
+    /**
+     * Waits until the statements queued so far have been delivered to the
+     * listeners.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if the statements were delivered
+     */
+    public static boolean flush(long timeoutMillis) {
+        long target = QUEUED_COUNT.longValue();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (DELIVERED) {
+            flushWaiters++;
+            try {
+                while (DELIVERED_COUNT.longValue() < target) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    DELIVERED.wait(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                flushWaiters--;
+            }
+        }
+    }
+
+    private static void logStatement(StatementType type, String statement) {
+        if (LISTENERS.isEmpty()) {
+            return;
+        }
+        Event event = new Event(type, statement);
+        BlockingQueue<Event> queue = buffer;
+        // a blocked statement needs a running dispatcher to make room
+        startDispatcher();
+        boolean queued;
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(event);
+                    queued = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queued = false;
+                }
+                break;
+            case SAMPLE:
+                if (queue.remainingCapacity() < queue.size()
+                        && SAMPLE_COUNT.incrementAndGet() % sampleRate != 0) {
+                    queued = false;
+                } else {
+                    queued = queue.offer(event);
+                }
+                break;
+            default:
+                queued = queue.offer(event);
+                break;
+        }
+        while (queued && queue != buffer && queue.remove(event)) {
+            // the buffer was replaced meanwhile
+            queue = buffer;
+            queued = queue.offer(event);
+        }
+        if (queued) {
+            QUEUED_COUNT.incrementAndGet();
+        } else {
+            DROPPED_COUNT.incrementAndGet();
+        }
+    }
+
+    private static void startDispatcher() {
+        if (DISPATCHING.get()) {
+            return;
+        }
+        // shutdown() must see the thread which is started
+        synchronized (IciqlLogger.class) {
+            if (!DISPATCHING.compareAndSet(false, true)) {
+                return;
+            }
+            Thread thread = new Thread(new Runnable() {
                 public void run() {
-                    listener.logIciql(type, statement);
+                    dispatch();
+                }
+            }, "iciql-logger");
+            thread.setDaemon(true);
+            dispatcher = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Delivers the queued statements until the thread is interrupted.
+     */
+    private static void dispatch() {
+        List<Event> batch = Utils.newArrayList();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                BlockingQueue<Event> queue = buffer;
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Event event : batch) {
+                    for (IciqlListener listener : LISTENERS) {
+                        try {
+                            listener.logIciql(event.type, event.statement);
+                        } catch (Throwable t) {
+                            Thread thread = Thread.currentThread();
+                            thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                        }
+                    }
                 }
-            });
+                delivered(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            dispatcher = null;
+            DISPATCHING.set(false);
+        }
+    }
+
+    private static void delivered(int count) {
+        DELIVERED_COUNT.addAndGet(count);
+        if (flushWaiters > 0) {
+            synchronized (DELIVERED) {
+                DELIVERED.notifyAll();
+            }
         }
     }
 
@@ -182,6 +458,10 @@ public class IciqlLogger {
         return WARN_COUNT.longValue();
     }
 
+    public static long getSlowCount() {
+        return SLOW_COUNT.longValue();
+    }
+
     public static long getTotalCount() {
         return getCreateCount() + getInsertCount() + getUpdateCount() + getDeleteCount() + getMergeCount()
                 + getSelectCount() + getDropCount();
@@ -191,6 +471,7 @@ public class IciqlLogger {
         logStatement(StatementType.STAT, "iciql Runtime Statistics");
         logStatement(StatementType.STAT, "========================");
         logStat(StatementType.WARN, getWarnCount());
+        logStat(StatementType.SLOW, getSlowCount());
         logStatement(StatementType.STAT, "========================");
         logStat(StatementType.CREATE, getCreateCount());
         logStat(StatementType.INSERT, getInsertCount());
@@ -210,4 +491,18 @@ public class IciqlLogger {
                     StringUtils.pad(type.name(), 6, " ", true) + " = " + df.format(value));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A logged statement.
+     */
+    private static class Event {
+
+        final StatementType type;
+        final String statement;
+
+        Event(StatementType type, String statement) {
+            this.type = type;
+            this.statement = statement;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+import com.iciql.util.IciqlLogger.StatementType;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class to optionally record the latencies of executed statements.<br>
+ * Metrics are disabled by default.
+ * <p>
+ * Statements are grouped by type, table and a fingerprint of the SQL in
+ * which literals are replaced by parameters and IN lists and multi-row
+ * VALUES are collapsed. The metrics are available as a snapshot from
+ * getSnapshot() and through the IciqlMetricsMXBean.
+ */
+public class IciqlMetrics {
+
+    /**
+     * The maximum number of distinct fingerprints, statements beyond are
+     * not recorded.
+     */
+    public static final int MAX_STATEMENTS = 1000;
+
+    private static final String OBJECT_NAME = "com.iciql:type=Metrics";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(\\(\\?\\))(\\s*,\\s*\\(\\?\\))+");
+
+    private static final ConcurrentHashMap<String, Metrics> STATEMENTS =
+            new ConcurrentHashMap<String, Metrics>();
+    private static final ConcurrentHashMap<String, Metrics> FINGERPRINTS =
+            new ConcurrentHashMap<String, Metrics>();
+
+    private static volatile boolean enabled;
+    private static boolean registered;
+
+    /**
+     * Returns true if metrics are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording of metrics. The MXBean is registered
+     * with the platform MBeanServer when metrics are first enabled.
+     *
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        IciqlMetrics.enabled = enabled;
+        if (enabled) {
+            registerMBean();
+        }
+    }
+
+    private static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (Exception e) {
+            IciqlLogger.warn("failed to register {0}: {1}", OBJECT_NAME, e.getMessage());
+        }
+    }
+
+    /**
+     * Records the execution time of a statement.
+     *
+     * @param sql   the SQL of the statement
+     * @param nanos the elapsed time
+     */
+    public static void recordExecution(String sql, long nanos) {
+        Metrics metrics = getMetrics(sql);
+        if (metrics != null) {
+            metrics.execution.record(nanos);
+        }
+    }
+
+    /**
+     * Records the time spent reading the rows of a query result.
+     *
+     * @param sql   the SQL of the query
+     * @param nanos the elapsed time
+     * @param rows  the number of rows read
+     */
+    public static void recordMapping(String sql, long nanos, long rows) {
+        Metrics metrics = getMetrics(sql);
+        if (metrics != null) {
+            metrics.mapping.record(nanos);
+            metrics.rows.addAndGet(rows);
+        }
+    }
+
+    /**
+     * Returns the metrics of all recorded statements, ordered by total
+     * execution time.
+     *
+     * @return the metrics snapshot
+     */
+    public static List<StatementMetrics> getSnapshot() {
+        List<StatementMetrics> list = Utils.newArrayList();
+        long now = System.nanoTime();
+        for (Metrics metrics : FINGERPRINTS.values()) {
+            list.add(metrics.snapshot(now));
+        }
+        Collections.sort(list, new Comparator<StatementMetrics>() {
+            @Override
+            public int compare(StatementMetrics a, StatementMetrics b) {
+                long x = a.getExecutionTotal();
+                long y = b.getExecutionTotal();
+                return x > y ? -1 : (x < y ? 1 : 0);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Discards all recorded metrics.
+     */
+    public static void reset() {
+        STATEMENTS.clear();
+        FINGERPRINTS.clear();
+    }
+
+    private static Metrics getMetrics(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Metrics metrics = STATEMENTS.get(sql);
+        if (metrics != null) {
+            return metrics;
+        }
+        String fingerprint = fingerprint(sql);
+        StatementType type = getType(fingerprint);
+        String table = getTable(fingerprint);
+        String key = type + " " + table + " " + fingerprint;
+        metrics = FINGERPRINTS.get(key);
+        if (metrics == null) {
+            if (FINGERPRINTS.size() >= MAX_STATEMENTS) {
+                return null;
+            }
+            metrics = new Metrics(type, table, fingerprint);
+            Metrics existing = FINGERPRINTS.putIfAbsent(key, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+        if (STATEMENTS.size() >= 4 * MAX_STATEMENTS) {
+            // statements with inlined literals
+            STATEMENTS.clear();
+        }
+        STATEMENTS.put(sql, metrics);
+        return metrics;
+    }
+
+    /**
+     * Normalizes the SQL of a statement: literals are replaced by parameters,
+     * whitespace is collapsed and parameter lists are reduced to one
+     * parameter.
+     *
+     * @param sql the SQL
+     * @return the fingerprint
+     */
+    static String fingerprint(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // string literal, '' is an escaped quote
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    i++;
+                }
+                sb.append('?');
+            } else if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))) {
+                // numeric literal
+                while (i + 1 < length && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else {
+                sb.append(c);
+            }
+        }
+        String s = WHITESPACE.matcher(sb.toString().trim()).replaceAll(" ");
+        s = IN_LIST.matcher(s).replaceAll("(?)");
+        s = VALUES_LIST.matcher(s).replaceAll("$1");
+        return s;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '"' || c == '`';
+    }
+
+    static StatementType getType(String sql) {
+        int end = sql.indexOf(' ');
+        String keyword = (end < 0 ? sql : sql.substring(0, end)).toUpperCase();
+        for (StatementType type : StatementType.values()) {
+            if (type.name().equals(keyword)) {
+                return type;
+            }
+        }
+        if (keyword.equals("REPLACE") || keyword.equals("UPSERT")) {
+            return StatementType.MERGE;
+        }
+        return StatementType.STAT;
+    }
+
+    /**
+     * Returns the first table referenced after FROM, INTO, UPDATE, TABLE or
+     * VIEW.
+     */
+    static String getTable(String sql) {
+        String[] words = sql.split(" ");
+        for (int i = 0; i < words.length - 1; i++) {
+            String word = words[i].toUpperCase();
+            if (word.equals("FROM") || word.equals("INTO") || word.equals("UPDATE") || word.equals("TABLE")
+                    || word.equals("VIEW")) {
+                String table = words[i + 1];
+                if (table.startsWith("(")) {
+                    // sub-query
+                    continue;
+                }
+                int paren = table.indexOf('(');
+                if (paren > 0) {
+                    table = table.substring(0, paren);
+                }
+                return table.replace("\"", "").replace("`", "").replace("[", "").replace("]", "");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The metrics of one fingerprint.
+     */
+    private static class Metrics {
+
+        final StatementType type;
+        final String table;
+        final String sql;
+        final long created = System.nanoTime();
+        final LatencyHistogram execution = new LatencyHistogram();
+        final LatencyHistogram mapping = new LatencyHistogram();
+        final AtomicLong rows = new AtomicLong();
+
+        Metrics(StatementType type, String table, String sql) {
+            this.type = type;
+            this.table = table;
+            this.sql = sql;
+        }
+
+        StatementMetrics snapshot(long now) {
+            long executions = execution.getCount();
+            double seconds = Math.max(1L, now - created) / 1000000000d;
+            return new StatementMetrics(type.name(), table, sql, executions, execution.getTotal(),
+                    execution.getPercentile(0.5), execution.getPercentile(0.99),
+                    execution.getPercentile(0.999), execution.getMax(), mapping.getTotal(),
+                    mapping.getPercentile(0.5), mapping.getPercentile(0.99), mapping.getMax(), rows.get(),
+                    executions / seconds);
+        }
+    }
+
+    /**
+     * The MXBean of the metrics.
+     */
+    private static class Bean implements IciqlMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return IciqlMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            IciqlMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public StatementMetrics[] getStatements() {
+            List<StatementMetrics> list = getSnapshot();
+            return list.toArray(new StatementMetrics[list.size()]);
+        }
+
+        @Override
+        public long getExecutions() {
+            long executions = 0;
+            for (Metrics metrics : FINGERPRINTS.values()) {
+                executions += metrics.execution.getCount();
+            }
+            return executions;
+        }
+
+        @Override
+        public void reset() {
+            IciqlMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+/**
+ * The management interface of the iciql statement metrics, registered as
+ * com.iciql:type=Metrics while metrics are enabled.
+ */
+public interface IciqlMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the metrics of all recorded statements, ordered by total
+     * execution time.
+     */
+    StatementMetrics[] getStatements();
+
+    /**
+     * Returns the total number of recorded executions.
+     */
+    long getExecutions();
+
+    void reset();
+}
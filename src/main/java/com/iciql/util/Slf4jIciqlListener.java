@@ -62,7 +62,7 @@ public class Slf4jIciqlListener implements IciqlListener {
      * @param level
      */
     public void setLevel(StatementType type, Level level) {
-        levels.put(type, defaultLevel);
+        levels.put(type, level);
     }
 
     @Override
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.util;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the metrics of one statement fingerprint. Durations are in
+ * nanoseconds.
+ * <p>
+ * Execution times are measured around the JDBC execution of the statement,
+ * mapping times around the loop which reads the rows of a query result.
+ */
+public class StatementMetrics {
+
+    private final String type;
+    private final String table;
+    private final String sql;
+    private final long executions;
+    private final long executionTotal;
+    private final long executionP50;
+    private final long executionP99;
+    private final long executionP999;
+    private final long executionMax;
+    private final long mappingTotal;
+    private final long mappingP50;
+    private final long mappingP99;
+    private final long mappingMax;
+    private final long rows;
+    private final double throughput;
+
+    @ConstructorProperties({"type", "table", "sql", "executions", "executionTotal", "executionP50",
+            "executionP99", "executionP999", "executionMax", "mappingTotal", "mappingP50", "mappingP99",
+            "mappingMax", "rows", "throughput"})
+    public StatementMetrics(String type, String table, String sql, long executions, long executionTotal,
+                            long executionP50, long executionP99, long executionP999, long executionMax,
+                            long mappingTotal, long mappingP50, long mappingP99, long mappingMax, long rows,
+                            double throughput) {
+        this.type = type;
+        this.table = table;
+        this.sql = sql;
+        this.executions = executions;
+        this.executionTotal = executionTotal;
+        this.executionP50 = executionP50;
+        this.executionP99 = executionP99;
+        this.executionP999 = executionP999;
+        this.executionMax = executionMax;
+        this.mappingTotal = mappingTotal;
+        this.mappingP50 = mappingP50;
+        this.mappingP99 = mappingP99;
+        this.mappingMax = mappingMax;
+        this.rows = rows;
+        this.throughput = throughput;
+    }
+
+    /**
+     * Returns the statement type, e.g. SELECT.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the first table of the statement, or null if none was found.
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the normalized SQL with literals replaced by parameters.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getExecutionTotal() {
+        return executionTotal;
+    }
+
+    public long getExecutionP50() {
+        return executionP50;
+    }
+
+    public long getExecutionP99() {
+        return executionP99;
+    }
+
+    public long getExecutionP999() {
+        return executionP999;
+    }
+
+    public long getExecutionMax() {
+        return executionMax;
+    }
+
+    public long getMappingTotal() {
+        return mappingTotal;
+    }
+
+    public long getMappingP50() {
+        return mappingP50;
+    }
+
+    public long getMappingP99() {
+        return mappingP99;
+    }
+
+    public long getMappingMax() {
+        return mappingMax;
+    }
+
+    /**
+     * Returns the number of rows read by the row mapping loop.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the executions per second since the statement was first
+     * recorded.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + sql + " (" + executions + " executions, p50=" + executionP50 + "ns, p99="
+                + executionP99 + "ns, max=" + executionMax + "ns)";
+    }
+}
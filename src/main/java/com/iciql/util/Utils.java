@@ -34,8 +34,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.sql.Blob;
-import java.sql.Clob;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -64,14 +62,18 @@ public class Utils {
 
     private static final int BUFFER_BLOCK_SIZE = 4 * 1024;
 
-    public static synchronized int nextAsCount() {
-        // prevent negative values and use a threadsafe counter
-        int count = AS_COUNTER.incrementAndGet();
-        if (count == Integer.MAX_VALUE) {
-            count = 0;
-            AS_COUNTER.set(count);
+    public static int nextAsCount() {
+        // prevent negative values without blocking concurrent callers
+        while (true) {
+            int current = AS_COUNTER.get();
+            int count = current + 1;
+            if (count == Integer.MAX_VALUE) {
+                count = 0;
+            }
+            if (AS_COUNTER.compareAndSet(current, count)) {
+                return count;
+            }
         }
-        return count;
     }
 
     @SuppressWarnings("unchecked")
@@ -249,120 +251,7 @@ public class Utils {
         if (o == null) {
             return null;
         }
-        Class<?> currentType = o.getClass();
-        if (targetType.isAssignableFrom(currentType)) {
-            return o;
-        }
-
-        // convert from CLOB/TEXT/VARCHAR to String
-        if (targetType == String.class) {
-            if (Clob.class.isAssignableFrom(currentType)) {
-                Clob c = (Clob) o;
-                try {
-                    Reader r = c.getCharacterStream();
-                    return readStringAndClose(r, -1);
-                } catch (Exception e) {
-                    throw new IciqlException(e, "error converting CLOB to String: ", e.toString());
-                }
-            }
-            return o.toString();
-        }
-
-        if (Boolean.class.isAssignableFrom(targetType) || boolean.class.isAssignableFrom(targetType)) {
-            // convert from number to boolean
-            if (Number.class.isAssignableFrom(currentType)) {
-                Number n = (Number) o;
-                return n.intValue() > 0;
-            }
-            // convert from string to boolean
-            if (String.class.isAssignableFrom(currentType)) {
-                String s = o.toString().toLowerCase();
-                float f = 0f;
-                try {
-                    f = Float.parseFloat(s);
-                } catch (Exception e) {
-                }
-                return f > 0 || s.equals("true") || s.equals("yes") || s.equals("y") || s.equals("on");
-            }
-        }
-
-        // convert from boolean to number
-        if (Boolean.class.isAssignableFrom(currentType)) {
-            Boolean b = (Boolean) o;
-            Integer n = b ? 1 : 0;
-            if (Number.class.isAssignableFrom(targetType)) {
-                return n.intValue();
-            } else if (byte.class.isAssignableFrom(targetType)) {
-                return n.byteValue();
-            } else if (short.class.isAssignableFrom(targetType)) {
-                return n.shortValue();
-            } else if (int.class.isAssignableFrom(targetType)) {
-                return n.intValue();
-            } else if (long.class.isAssignableFrom(targetType)) {
-                return n.longValue();
-            } else if (float.class.isAssignableFrom(targetType)) {
-                return n.floatValue();
-            } else if (double.class.isAssignableFrom(targetType)) {
-                return n.doubleValue();
-            } else if (boolean.class.isAssignableFrom(targetType)) {
-                return b.booleanValue();
-            }
-        }
-
-        // convert from number to number
-        if (Number.class.isAssignableFrom(currentType)) {
-            Number n = (Number) o;
-            if (targetType == byte.class || targetType == Byte.class) {
-                return n.byteValue();
-            } else if (targetType == short.class || targetType == Short.class) {
-                return n.shortValue();
-            } else if (targetType == int.class || targetType == Integer.class) {
-                return n.intValue();
-            } else if (targetType == long.class || targetType == Long.class) {
-                return n.longValue();
-            } else if (targetType == double.class || targetType == Double.class) {
-                return n.doubleValue();
-            } else if (targetType == float.class || targetType == Float.class) {
-                return n.floatValue();
-            } else if (targetType == BigDecimal.class) {
-                return new BigDecimal(n.doubleValue());
-            } else if (targetType == java.util.Date.class) {
-                return new java.util.Date(n.longValue());
-            } else if (targetType == java.sql.Date.class) {
-                return new java.sql.Date(n.longValue());
-            } else if (targetType == java.sql.Time.class) {
-                return new java.sql.Time(n.longValue());
-            } else if (targetType == java.sql.Timestamp.class) {
-                return new java.sql.Timestamp(n.longValue());
-            }
-        }
-
-        if (Date.class.isAssignableFrom(currentType)) {
-            Date d = (Date) o;
-            if (targetType == Date.class) {
-                return o;
-            } else if (targetType == java.sql.Date.class) {
-                return new java.sql.Date(d.getTime());
-            } else if (targetType == java.sql.Time.class) {
-                return new java.sql.Time(d.getTime());
-            } else if (targetType == java.sql.Timestamp.class) {
-                return new java.sql.Timestamp(d.getTime());
-            }
-        }
-
-        // convert from BLOB
-        if (targetType == byte[].class) {
-            if (Blob.class.isAssignableFrom(currentType)) {
-                Blob b = (Blob) o;
-                try {
-                    InputStream is = b.getBinaryStream();
-                    return readBlobAndClose(is, -1);
-                } catch (Exception e) {
-                    throw new IciqlException(e, "error converting BLOB to byte[]: ", e.toString());
-                }
-            }
-        }
-        throw new IciqlException("Can not convert the value {0} from {1} to {2}", o, currentType, targetType);
+        return ColumnConverters.get(o.getClass(), targetType).convert(o);
     }
 
     /**
@@ -441,99 +330,7 @@ public class Utils {
         if (o == null) {
             return null;
         }
-        Class<?> currentType = o.getClass();
-        if (targetType.isAssignableFrom(currentType)) {
-            return o;
-        }
-        // convert from VARCHAR/TEXT/INT to Enum
-        Enum<?>[] values = (Enum[]) targetType.getEnumConstants();
-        if (Clob.class.isAssignableFrom(currentType)) {
-            // TEXT/CLOB field
-            Clob c = (Clob) o;
-            String name = null;
-            try {
-                Reader r = c.getCharacterStream();
-                name = readStringAndClose(r, -1);
-            } catch (Exception e) {
-                throw new IciqlException(e, "error converting CLOB to String: ", e.toString());
-            }
-
-            // find name match
-            if (type.equals(EnumType.ENUMID)) {
-                // ENUMID mapping
-                for (Enum<?> value : values) {
-                    EnumId<?> enumid = (EnumId<?>) value;
-                    if (enumid.enumId().equals(name)) {
-                        return value;
-                    }
-                }
-            } else if (type.equals(EnumType.NAME)) {
-                // standard Enum.name() mapping
-                for (Enum<?> value : values) {
-                    if (value.name().equalsIgnoreCase(name)) {
-                        return value;
-                    }
-                }
-            }
-        } else if (String.class.isAssignableFrom(currentType)) {
-            // VARCHAR field
-            String name = (String) o;
-            if (type.equals(EnumType.ENUMID)) {
-                // ENUMID mapping
-                for (Enum<?> value : values) {
-                    EnumId<?> enumid = (EnumId<?>) value;
-                    if (enumid.enumId().equals(name)) {
-                        return value;
-                    }
-                }
-            } else if (type.equals(EnumType.NAME)) {
-                // standard Enum.name() mapping
-                for (Enum<?> value : values) {
-                    if (value.name().equalsIgnoreCase(name)) {
-                        return value;
-                    }
-                }
-            }
-        } else if (Number.class.isAssignableFrom(currentType)) {
-            // INT field
-            int n = ((Number) o).intValue();
-            if (type.equals(EnumType.ORDINAL)) {
-                // ORDINAL mapping
-                for (Enum<?> value : values) {
-                    if (value.ordinal() == n) {
-                        return value;
-                    }
-                }
-            } else if (type.equals(EnumType.ENUMID)) {
-                if (!EnumId.class.isAssignableFrom(targetType)) {
-                    throw new IciqlException("Can not convert the value {0} from {1} to {2} using ENUMID", o,
-                            currentType, targetType);
-                }
-                // ENUMID mapping
-                for (Enum<?> value : values) {
-                    EnumId<?> enumid = (EnumId<?>) value;
-                    if (enumid.enumId().equals(n)) {
-                        return value;
-                    }
-                }
-            }
-        } else {
-            // custom object mapping
-            if (type.equals(EnumType.ENUMID)) {
-                if (!EnumId.class.isAssignableFrom(targetType)) {
-                    throw new IciqlException("Can not convert the value {0} from {1} to {2} using ENUMID", o,
-                            currentType, targetType);
-                }
-                // ENUMID mapping
-                for (Enum<?> value : values) {
-                    EnumId<?> enumid = (EnumId<?>) value;
-                    if (enumid.enumId().equals(o)) {
-                        return value;
-                    }
-                }
-            }
-        }
-        throw new IciqlException("Can not convert the value {0} from {1} to {2}", o, currentType, targetType);
+        return EnumLookup.of(targetType).convert(o, type);
     }
 
     /**
@@ -32,8 +32,11 @@ import java.util.Set;
  *
  * @param <K> the keys
  * @param <V> the value
+ * @deprecated this map is not thread-safe and is no longer used by iciql,
+ * use {@link ConcurrentWeakIdentityHashMap}
  */
 
+@Deprecated
 public class WeakIdentityHashMap<K, V> implements Map<K, V> {
 
     private static final int MAX_LOAD = 90;
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.MessageFormat;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Measures the bytes allocated by the current thread with the HotSpot
+ * extension of the ThreadMXBean.
+ * <p>
+ * An operation is warmed up and then measured in several rounds. The
+ * smallest average of the rounds is reported, which filters out one-time
+ * allocations like class loading, cache population and JIT activity.
+ */
+public final class AllocationMeter {
+
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS = getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the JVM reports the bytes allocated per thread.
+     *
+     * @return true if allocations can be measured
+     */
+    public static boolean isSupported() {
+        return THREADS != null && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     *
+     * @return the allocated bytes
+     */
+    public static long getAllocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Measures the bytes allocated per execution of an operation.
+     *
+     * @param operation  the operation
+     * @param iterations the number of executions per round
+     * @return the smallest average bytes per execution of the measured rounds
+     */
+    public static long measure(Runnable operation, int iterations) {
+        // warmup
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long min = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = getAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                operation.run();
+            }
+            min = Math.min(min, (getAllocatedBytes() - start) / iterations);
+        }
+        return min;
+    }
+
+    /**
+     * Fails if the measured bytes exceed the budget.
+     *
+     * @param name     the name of the measured operation
+     * @param budget   the maximum bytes
+     * @param measured the measured bytes
+     */
+    public static void assertWithinBudget(String name, long budget, long measured) {
+        if (measured > budget) {
+            fail(MessageFormat.format("{0} allocated {1} bytes, the budget is {2} bytes", name, measured,
+                    budget));
+        }
+    }
+}
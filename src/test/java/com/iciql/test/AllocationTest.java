@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.test.models.Product;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.iciql.test.AllocationMeter.assertWithinBudget;
+import static com.iciql.test.AllocationMeter.measure;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Allocation budgets of the hot paths.
+ * <p>
+ * The budgets are the bytes allocated per operation by iciql and by the
+ * JDBC driver together. The baselines are measured per database engine on a
+ * 64-bit JVM with compressed oops, the test is skipped for an engine without
+ * baselines. The budget is the baseline plus HEADROOM percent, which absorbs
+ * the differences between runs and JVM versions while a regression of more
+ * than a quarter fails the test, e.g. one more 24 byte object per row on H2.
+ * Lower a baseline when an allocation is removed.
+ */
+public class AllocationTest {
+
+    private static final int HEADROOM = 25;
+
+    /**
+     * SQL generation of a query with a condition and an order, without
+     * executing it. It does not depend on the database engine.
+     */
+    private static final long QUERY_BASELINE = 2700;
+
+    /**
+     * Baselines of the database engines, keyed by the product name.
+     */
+    private static final Map<String, Baseline> BASELINES = new HashMap<String, Baseline>();
+
+    static {
+        BASELINES.put("H2", new Baseline(6240, 5010, 91));
+        BASELINES.put("HSQL Database Engine", new Baseline(8190, 16210, 141));
+        BASELINES.put("Apache Derby", new Baseline(11660, 12530, 229));
+        BASELINES.put("SQLite", new Baseline(2880, 7770, 267));
+    }
+
+    /**
+     * The bytes allocated by the database dependent operations.
+     */
+    private static class Baseline {
+
+        /**
+         * Insert of one Product.
+         */
+        final long insert;
+
+        /**
+         * Select of the 10 sample Products.
+         */
+        final long select;
+
+        /**
+         * Each additional Product row of a select.
+         */
+        final long row;
+
+        Baseline(long insert, long select, long row) {
+            this.insert = insert;
+            this.select = select;
+            this.row = row;
+        }
+    }
+
+    private static final int ITERATIONS = 200;
+
+    private Db db;
+
+    private Baseline baseline;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(AllocationMeter.isSupported());
+        db = IciqlSuite.openNewDb();
+        baseline = BASELINES.get(IciqlSuite.getDatabaseEngineName(db));
+        Assume.assumeNotNull(baseline);
+        db.insertAll(Product.getList());
+    }
+
+    private static long budget(long baseline) {
+        return baseline + baseline * HEADROOM / 100;
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testQueryBudget() {
+        final Product p = new Product();
+        long bytes = measure(new Runnable() {
+            @Override
+            public void run() {
+                db.from(p).where(p.category).is("Beverages").orderBy(p.productId).toSQL();
+            }
+        }, ITERATIONS);
+        assertWithinBudget("query", budget(QUERY_BASELINE), bytes);
+    }
+
+    @Test
+    public void testInsertBudget() {
+        final Product product = new Product();
+        product.productName = "Allocation";
+        product.category = "Allocation";
+        product.unitPrice = 1d;
+        product.unitsInStock = 1;
+        long bytes = measure(new Runnable() {
+            int id = 1000;
+
+            @Override
+            public void run() {
+                product.productId = id++;
+                db.insert(product);
+            }
+        }, ITERATIONS);
+        assertWithinBudget("insert", budget(baseline.insert), bytes);
+    }
+
+    @Test
+    public void testSelectBudget() {
+        final Product p = new Product();
+        long bytes = measure(new Runnable() {
+            @Override
+            public void run() {
+                db.from(p).select();
+            }
+        }, ITERATIONS);
+        assertWithinBudget("select of 10 rows", budget(baseline.select), bytes);
+    }
+
+    @Test
+    public void testRowBudget() {
+        List<Product> products = new ArrayList<Product>();
+        for (int i = 0; i < 100; i++) {
+            Product product = new Product();
+            product.productId = 1000 + i;
+            product.productName = "Allocation " + i;
+            product.category = "Allocation";
+            product.unitPrice = 1d + i;
+            product.unitsInStock = i;
+            products.add(product);
+        }
+        db.insertAll(products);
+
+        final Product p = new Product();
+        assertEquals(10, db.from(p).where(p.productId).lessThan(1000).select().size());
+        assertEquals(110, db.from(p).where(p.productId).lessThan(2000).select().size());
+        long ten = measure(new Runnable() {
+            @Override
+            public void run() {
+                db.from(p).where(p.productId).lessThan(1000).select();
+            }
+        }, ITERATIONS);
+        long all = measure(new Runnable() {
+            @Override
+            public void run() {
+                db.from(p).where(p.productId).lessThan(2000).select();
+            }
+        }, ITERATIONS);
+        assertWithinBudget("row", budget(baseline.row), Math.max(0, all - ten) / 100);
+    }
+}
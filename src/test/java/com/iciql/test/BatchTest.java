@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.IciqlException;
+import com.iciql.test.models.Product;
+import com.iciql.test.models.SupportedTypes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests batched insertAll, updateAll and deleteAll.
+ */
+public class BatchTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+        db.setBatchSize(3);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testInsertUpdateDeleteAll() {
+        Product p = new Product();
+        db.insertAll(Product.getList());
+        assertEquals(10, db.from(p).selectCount());
+
+        List<Product> list = db.from(p).orderBy(p.productId).select();
+        for (Product product : list) {
+            product.unitsInStock = product.productId * 2;
+        }
+        db.updateAll(list);
+        for (Product product : db.from(p).orderBy(p.productId).select()) {
+            assertEquals(product.productId * 2, product.unitsInStock.intValue());
+        }
+
+        db.deleteAll(list.subList(0, 7));
+        assertEquals(3, db.from(p).selectCount());
+        assertEquals(8, db.from(p).orderBy(p.productId).selectFirst().productId.intValue());
+    }
+
+    @Test
+    public void testUnbatched() {
+        db.setBatchSize(1);
+        Product p = new Product();
+        db.insertAll(Product.getList());
+        assertEquals(10, db.from(p).selectCount());
+        db.deleteAll(db.from(p).select());
+        assertEquals(0, db.from(p).selectCount());
+    }
+
+    @Test
+    public void testDuplicateKey() {
+        Product p = new Product();
+        db.insertAll(Product.getList().subList(0, 5));
+
+        // the duplicate row is in the second batch
+        List<Product> list = new ArrayList<Product>(Product.getList().subList(5, 10));
+        list.add(Product.getList().get(2));
+        try {
+            db.insertAll(list);
+            fail("expected a duplicate key exception");
+        } catch (IciqlException e) {
+            assertEquals(IciqlException.CODE_DUPLICATE_KEY, e.getIciqlCode());
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Failed to insert"));
+        }
+        // the connection is usable after the failed batch
+        assertTrue(db.from(p).selectCount() >= 5);
+    }
+
+    @Test
+    public void testMultiRowInsert() {
+        db.setMultiRowInserts(true);
+        Product p = new Product();
+        db.insertAll(Product.getList());
+        assertEquals(10, db.from(p).selectCount());
+        List<Product> list = db.from(p).orderBy(p.productId).select();
+        for (int i = 0; i < list.size(); i++) {
+            Product expected = Product.getList().get(i);
+            assertEquals(expected.productName, list.get(i).productName);
+            assertEquals(expected.unitsInStock, list.get(i).unitsInStock);
+        }
+    }
+
+    @Test
+    public void testMultiRowInsertDuplicateKey() {
+        db.setMultiRowInserts(true);
+        Product p = new Product();
+        db.insertAll(Product.getList().subList(0, 5));
+        try {
+            db.insertAll(Product.getList().subList(4, 10));
+            fail("expected a duplicate key exception");
+        } catch (IciqlException e) {
+            assertEquals(IciqlException.CODE_DUPLICATE_KEY, e.getIciqlCode());
+        }
+        assertTrue(db.from(p).selectCount() >= 5);
+    }
+
+    @Test
+    public void testInsertAllAndGetKeys() {
+        List<SupportedTypes> list = SupportedTypes.createList();
+        List<Long> keys = db.insertAllAndGetKeys(list);
+        assertEquals(list.size(), keys.size());
+
+        // the keys are returned in input order
+        SupportedTypes s = new SupportedTypes();
+        for (int i = 0; i < list.size(); i++) {
+            SupportedTypes row = db.from(s).where(s.id).is(keys.get(i).intValue()).selectFirst();
+            assertEquals(list.get(i).myString, row.myString);
+        }
+    }
+
+    @Test
+    public void testInsertAllAndGetKeysWithoutIdentity() {
+        // Product has no identity column
+        List<Product> list = Product.getList();
+        List<Long> keys = db.insertAllAndGetKeys(list);
+        assertEquals(list.size(), keys.size());
+        if (IciqlSuite.isH2(db)) {
+            // the batch returns no keys, each row is reported without one
+            for (Long key : keys) {
+                assertEquals(-1L, key.longValue());
+            }
+        }
+        assertEquals(list.size(), db.from(new Product()).selectCount());
+    }
+
+    @Test
+    public void testInvalidBatchSize() {
+        try {
+            db.setBatchSize(0);
+            fail("expected an invalid batch size exception");
+        } catch (IciqlException e) {
+            assertEquals(3, db.getBatchSize());
+        }
+    }
+}
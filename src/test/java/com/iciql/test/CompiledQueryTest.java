@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.CompiledQuery;
+import com.iciql.Db;
+import com.iciql.IciqlException;
+import com.iciql.test.models.EnumModels.EnumIdModel;
+import com.iciql.test.models.EnumModels.EnumStringModel;
+import com.iciql.test.models.EnumModels.Tree;
+import com.iciql.test.models.Product;
+import com.iciql.util.Utils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests compiled queries.
+ */
+public class CompiledQueryTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+        db.insertAll(Product.getList());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testExecute() {
+        Product p = new Product();
+        CompiledQuery<Product> q = db.from(p).where(p.category).isParameter().orderBy(p.productId).compile();
+        assertEquals(1, q.getParameterCount());
+        assertEquals(2, q.execute(db, "Beverages").size());
+        List<Product> list = q.execute(db, "Condiments");
+        assertEquals(5, list.size());
+        assertEquals("Aniseed Syrup", list.get(0).productName);
+        assertEquals(0, q.execute(db, "Nothing").size());
+    }
+
+    @Test
+    public void testStaticAndRuntimeParameters() {
+        Product p = new Product();
+        CompiledQuery<Product> q = db.from(p).where(p.category).is("Condiments")
+                .and(p.unitsInStock).exceedsParameter().and(p.unitsInStock).lessThanParameter().compile();
+        assertEquals(2, q.getParameterCount());
+        assertEquals(2, q.execute(db, 10, 100).size());
+        assertEquals(4, q.execute(db, 0, 200).size());
+        assertEquals("Grandma's Boysenberry Spread", q.executeFirst(db, 100, 200).productName);
+        assertNull(q.executeFirst(db, 200, 300));
+    }
+
+    @Test
+    public void testEnumParameters() {
+        db.insertAll(EnumIdModel.createList());
+        db.insertAll(EnumStringModel.createList());
+
+        EnumIdModel e = new EnumIdModel();
+        CompiledQuery<EnumIdModel> q1 = db.from(e).where(e.tree()).isParameter().compile();
+        assertEquals(400, q1.executeFirst(db, Tree.WALNUT).id.intValue());
+
+        EnumStringModel s = new EnumStringModel();
+        CompiledQuery<EnumStringModel> q2 = db.from(s).where(s.tree()).isParameter().compile();
+        assertEquals(200, q2.executeFirst(db, Tree.OAK).id.intValue());
+    }
+
+    @Test
+    public void testParameterCount() {
+        Product p = new Product();
+        CompiledQuery<Product> q = db.from(p).where(p.productId).isParameter().compile();
+        try {
+            q.execute(db);
+            fail("expected a parameter count exception");
+        } catch (IciqlException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentExecution() throws Exception {
+        Product p = new Product();
+        final CompiledQuery<Product> q = db.from(p).where(p.productId).isParameter().compile();
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = Utils.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Db threadDb = IciqlSuite.openCurrentDb();
+                    try {
+                        for (int j = 0; j < 50; j++) {
+                            int id = 1 + (j % 10);
+                            Product product = q.executeFirst(threadDb, id);
+                            if (product == null || product.productId != id) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failures.incrementAndGet();
+                    } finally {
+                        threadDb.close();
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(0, failures.get());
+    }
+}
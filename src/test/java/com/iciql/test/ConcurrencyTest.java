@@ -17,6 +17,7 @@
 package com.iciql.test;
 
 import com.iciql.Db;
+import com.iciql.Function;
 import com.iciql.IciqlException;
 import com.iciql.Query;
 import com.iciql.test.models.Product;
@@ -26,6 +27,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
@@ -148,6 +150,61 @@ public class ConcurrencyTest {
         assertEquals("ThreadLocal should never fail!", 0, failures.get());
     }
 
+    @Test
+    public void testTokenContention() throws Exception {
+        // Function tokens are registered and resolved by every thread that
+        // builds a query. Each thread must resolve its own tokens.
+        final Db db = IciqlSuite.openCurrentDb();
+        try {
+            final int threadCount = 8;
+            final int iterations = 500;
+            final String[] expected = new String[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                expected[i] = tokenQuery(db, new Product(), i);
+            }
+            final AtomicInteger failures = new AtomicInteger(0);
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = Utils.newArrayList();
+            for (int i = 0; i < threadCount; i++) {
+                final int index = i;
+                Thread t = new Thread(new Runnable() {
+                    public void run() {
+                        Product p = new Product();
+                        try {
+                            start.await();
+                            for (int j = 0; j < iterations; j++) {
+                                if (!expected[index].equals(tokenQuery(db, p, index))) {
+                                    failures.incrementAndGet();
+                                }
+                            }
+                        } catch (Throwable e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }, "ICIQL-" + i);
+                t.start();
+                threads.add(t);
+            }
+            start.countDown();
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(0, failures.get());
+        } finally {
+            db.close();
+        }
+    }
+
+    /**
+     * Returns a query whose function token and value depend on the thread.
+     */
+    private static String tokenQuery(Db db, Product p, int index) {
+        if (index % 2 == 0) {
+            return db.from(p).where(Function.length(p.productName)).exceeds(index).toSQL();
+        }
+        return db.from(p).where(Function.length(p.category)).exceeds(index).toSQL();
+    }
+
     private void test(int testCase, Product p) throws AssertionError {
         Db db = IciqlSuite.openCurrentDb();
         try {
@@ -17,11 +17,16 @@
 package com.iciql.test;
 
 import com.iciql.Db;
+import com.iciql.Define;
+import com.iciql.Iciql;
+import com.iciql.Iciql.DataTypeAdapter;
 import com.iciql.Iciql.IQColumn;
 import com.iciql.Iciql.IQTable;
+import com.iciql.Iciql.Mode;
 import com.iciql.Iciql.TypeAdapter;
 import com.iciql.adapter.JavaSerializationTypeAdapter;
 import com.iciql.test.models.SupportedTypes;
+import com.iciql.util.JdbcUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,6 +36,8 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Date;
 
 /**
@@ -68,6 +75,30 @@ public class DataTypeAdapterTest extends Assert {
 
     }
 
+    @Test
+    public void testDefinedTypeAdapter() throws SQLException {
+
+        DefinedTypeAdapterTest value = new DefinedTypeAdapterTest();
+        value.id = 1;
+        value.name = "iciql";
+        DefinedTypeAdapterTest none = new DefinedTypeAdapterTest();
+        none.id = 2;
+        db.insert(value);
+        db.insert(none);
+
+        DefinedTypeAdapterTest t = new DefinedTypeAdapterTest();
+        assertEquals("iciql", db.from(t).where(t.id).is(1).selectFirst().name);
+        ResultSet rs = db.executeQuery("SELECT name FROM definedTypeAdapters WHERE id = 1");
+        try {
+            assertTrue(rs.next());
+            assertEquals("ICIQL", rs.getString(1));
+        } finally {
+            JdbcUtils.closeSilently(rs, true);
+        }
+        assertNull(db.from(t).where(t.id).is(2).selectFirst().name);
+
+    }
+
     @IQTable(name = "dataTypeAdapters")
     public static class SerializedObjectTypeAdapterTest {
 
@@ -95,6 +126,56 @@ public class DataTypeAdapterTest extends Assert {
 
     }
 
+    /**
+     * Declares its type adapter with Define instead of an annotation.
+     */
+    public static class DefinedTypeAdapterTest implements Iciql {
+
+        public Integer id;
+
+        public String name;
+
+        @Override
+        public void defineIQ() {
+            Define.tableName("definedTypeAdapters");
+            Define.primaryKey(id);
+            Define.length(name, 20);
+            Define.typeAdapter(name, UpperCaseAdapter.class);
+        }
+
+    }
+
+    /**
+     * Stores a String in upper case and reads it in lower case.
+     */
+    public static class UpperCaseAdapter implements DataTypeAdapter<String> {
+
+        @Override
+        public String getDataType() {
+            return "VARCHAR";
+        }
+
+        @Override
+        public Class<String> getJavaType() {
+            return String.class;
+        }
+
+        @Override
+        public void setMode(Mode mode) {
+        }
+
+        @Override
+        public Object serialize(String value) {
+            return value == null ? null : value.toUpperCase();
+        }
+
+        @Override
+        public String deserialize(Object value) {
+            return value == null ? null : value.toString().toLowerCase();
+        }
+
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target({ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER})
     @TypeAdapter(SupportedTypesAdapterImpl.class)
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.DbPool;
+import com.iciql.IciqlException;
+import com.iciql.test.models.Product;
+import com.iciql.util.Utils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Db pool.
+ */
+public class DbPoolTest {
+
+    private DbPool pool;
+
+    @Before
+    public void setUp() {
+        Db db = IciqlSuite.openNewDb();
+        db.insertAll(Product.getList());
+        db.close();
+        pool = IciqlSuite.newDbPool();
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void testReuse() {
+        pool.setStatementCacheSize(10);
+        Product p = new Product();
+
+        Db db = pool.open();
+        Connection conn = db.getConnection();
+        assertEquals(10, db.from(p).select().size());
+        db.close();
+        // a second close is ignored
+        db.close();
+        assertEquals(1, pool.getSize());
+        assertEquals(1, pool.getIdleCount());
+
+        // the same Db and its statement cache are leased again
+        Db db2 = pool.open();
+        assertSame(db, db2);
+        assertSame(conn, db2.getConnection());
+        assertEquals(10, db2.from(p).select().size());
+        assertEquals(1, db2.getStatementCacheHits());
+        db2.close();
+
+        assertEquals(2, pool.getLeaseCount());
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+    @Test
+    public void testMaxSize() {
+        pool.setMaxSize(2);
+        pool.setMaxWait(50, TimeUnit.MILLISECONDS);
+        Db db1 = pool.open();
+        Db db2 = pool.open();
+        assertNotSame(db1, db2);
+        assertEquals(2, pool.getLeasedCount());
+        try {
+            pool.open();
+            fail("pool should be exhausted");
+        } catch (IciqlException e) {
+            assertEquals(1, pool.getTimeoutCount());
+        }
+        db1.close();
+        assertSame(db1, pool.open());
+        db1.close();
+        db2.close();
+        assertEquals(2, pool.getSize());
+    }
+
+    @Test
+    public void testRollbackOnReturn() throws Exception {
+        pool.setMaxSize(1);
+        Db db = pool.open();
+        db.getConnection().setAutoCommit(false);
+        Product p = new Product();
+        db.from(p).where(p.productId).is(1).delete();
+        // returned without commit
+        db.close();
+
+        db = pool.open();
+        assertTrue(db.getConnection().getAutoCommit());
+        assertEquals(10, db.from(p).selectCount());
+        db.close();
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        pool.setValidationInterval(0, TimeUnit.MILLISECONDS);
+        Db db = pool.open();
+        db.close();
+
+        // a broken connection is not returned to the pool
+        Db db2 = pool.open();
+        assertSame(db, db2);
+        db2.getConnection().close();
+        db2.close();
+        assertEquals(0, pool.getSize());
+        assertEquals(1, pool.getDestroyedCount());
+
+        Db db3 = pool.open();
+        assertNotSame(db, db3);
+        assertEquals(10, db3.from(new Product()).selectCount());
+        db3.close();
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        pool.setMinIdle(1);
+        pool.setIdleTimeout(100, TimeUnit.MILLISECONDS);
+        Db db1 = pool.open();
+        Db db2 = pool.open();
+        Db db3 = pool.open();
+        // the evictor does not open instances while every instance is leased
+        Thread.sleep(300);
+        assertEquals(3, pool.getSize());
+        db1.close();
+        db2.close();
+        db3.close();
+        assertTrue(pool.getSize() <= 3);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getSize() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, pool.getSize());
+        assertEquals(2, pool.getEvictedCount());
+    }
+
+    @Test
+    public void testConcurrentLeases() throws Exception {
+        final int threadCount = 8;
+        final int iterations = 100;
+        pool.setMaxSize(3);
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = Utils.newArrayList();
+        for (int i = 0; i < threadCount; i++) {
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    Product p = new Product();
+                    try {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            Db db = pool.open();
+                            try {
+                                if (db.from(p).where(p.productId).is(1 + j % 10).selectFirst() == null) {
+                                    failures.incrementAndGet();
+                                }
+                            } finally {
+                                db.close();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        failures.incrementAndGet();
+                    }
+                }
+            }, "ICIQL-" + i);
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(0, failures.get());
+        assertEquals(threadCount * iterations, pool.getLeaseCount());
+        assertTrue(pool.getSize() <= 3);
+        assertEquals(pool.getSize(), pool.getIdleCount());
+    }
+
+    @Test
+    public void testEvictionDuringLeases() throws Exception {
+        final int threadCount = 4;
+        pool.setMaxSize(3);
+        pool.setMinIdle(1);
+        pool.setIdleTimeout(1, TimeUnit.MILLISECONDS);
+        final long end = System.currentTimeMillis() + 500;
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = Utils.newArrayList();
+        for (int i = 0; i < threadCount; i++) {
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    Product p = new Product();
+                    try {
+                        for (int j = 0; System.currentTimeMillis() < end; j++) {
+                            Db db = pool.open();
+                            try {
+                                if (db.from(p).where(p.productId).is(1 + j % 10).selectFirst() == null) {
+                                    failures.incrementAndGet();
+                                }
+                            } finally {
+                                db.close();
+                            }
+                            // leave instances idle long enough to expire
+                            Thread.sleep(j % 3);
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        failures.incrementAndGet();
+                    }
+                }
+            }, "ICIQL-" + i);
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(0, failures.get());
+        assertTrue(pool.getSize() <= 3);
+        assertEquals(pool.getSize(), pool.getIdleCount());
+        assertEquals(pool.getCreatedCount() - pool.getDestroyedCount(), pool.getSize());
+    }
+}
@@ -17,6 +17,7 @@
 package com.iciql.test;
 
 import com.iciql.Db;
+import com.iciql.Iciql.EnumType;
 import com.iciql.IciqlException;
 import com.iciql.test.models.EnumModels;
 import com.iciql.test.models.EnumModels.EnumIdModel;
@@ -24,6 +25,7 @@ import com.iciql.test.models.EnumModels.EnumOrdinalModel;
 import com.iciql.test.models.EnumModels.EnumStringModel;
 import com.iciql.test.models.EnumModels.Genus;
 import com.iciql.test.models.EnumModels.Tree;
+import com.iciql.util.Utils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -147,6 +149,20 @@ public class EnumsTest {
         }
     }
 
+    @Test
+    public void testEnumConversions() {
+        assertEquals(Tree.OAK, Utils.convertEnum("oak", Tree.class, EnumType.NAME));
+        assertEquals(Tree.BIRCH, Utils.convertEnum(2, Tree.class, EnumType.ORDINAL));
+        assertEquals(Tree.WALNUT, Utils.convertEnum(40L, Tree.class, EnumType.ENUMID));
+        assertEquals(Genus.ACER, Utils.convertEnum("aceraceae", Genus.class, EnumType.ENUMID));
+        try {
+            Utils.convertEnum(5, Tree.class, EnumType.ORDINAL);
+            assertTrue("Converted an unknown ordinal?!", false);
+        } catch (IciqlException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Can not convert the value 5"));
+        }
+    }
+
     public static class BadEnums {
         Tree tree1 = Tree.BIRCH;
         Tree tree2 = Tree.MAPLE;
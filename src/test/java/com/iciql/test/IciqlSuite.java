@@ -22,6 +22,7 @@ import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.Parameters;
 import com.iciql.Constants;
 import com.iciql.Db;
+import com.iciql.DbPool;
 import com.iciql.Iciql.Mode;
 import com.iciql.test.DataTypeAdapterTest.SerializedObjectTypeAdapterTest;
 import com.iciql.test.models.BooleanModel;
@@ -95,7 +96,10 @@ import java.util.Map;
         ConcurrencyTest.class, EnumsTest.class, ModelsTest.class, PrimitivesTest.class, OneOfTest.class,
         RuntimeQueryTest.class, SamplesTest.class, UpdateTest.class, UpgradesTest.class, JoinTest.class,
         UUIDTest.class, ViewsTest.class, ForeignKeyTest.class, TransactionTest.class, NestedConditionsTest.class,
-        DataTypeAdapterTest.class, ProductDaoTest.class, BitwiseConditionTest.class})
+        DataTypeAdapterTest.class, ProductDaoTest.class, BitwiseConditionTest.class, StatementCacheTest.class,
+        BatchTest.class, QueryCursorTest.class, CompiledQueryTest.class, LoggerTest.class,
+        MetricsTest.class, AllocationTest.class, DbPoolTest.class,
+        UnitOfWorkTest.class})
 public class IciqlSuite {
     private final static File baseFolder = new File(System.getProperty("user.dir"), "/testdbs");
     private static final TestDb[] TEST_DBS = {
@@ -254,6 +258,18 @@ public class IciqlSuite {
         return Db.open(testUrl, testUser, testPassword);
     }
 
+    /**
+     * Creates a pool of the current database.
+     *
+     * @return a new pool of the current database
+     */
+    public static DbPool newDbPool() {
+        String testUrl = System.getProperty("iciql.url", DEFAULT_TEST_DB.url);
+        String testUser = System.getProperty("iciql.user", DEFAULT_TEST_DB.username);
+        String testPassword = System.getProperty("iciql.password", DEFAULT_TEST_DB.password);
+        return new DbPool(testUrl, testUser, testPassword);
+    }
+
     /**
      * Returns the name of the underlying database engine for the Db object.
      *
@@ -0,0 +1,665 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.iciql.Constants;
+import com.iciql.Db;
+import com.iciql.Filter;
+import com.iciql.Function;
+import com.iciql.test.models.Product;
+import com.iciql.util.StringUtils;
+import com.iciql.util.Utils;
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.commons.dbcp.DriverManagerConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
+
+import javax.sql.DataSource;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-threaded load test of iciql against the embedded databases.
+ * <p>
+ * Each database is accessed through a pooled DataSource. The worker threads
+ * run a configurable mix of typed reads and writes for a warmup period and
+ * then for a measured period. The throughput and the latency percentiles of
+ * the measured period are reported per database on the console and
+ * optionally written to CSV and JSON files.
+ * <p>
+ * While the workers run, their stacks are sampled with the ThreadMXBean.
+ * Samples of threads that are BLOCKED or WAITING are attributed to the
+ * nearest iciql frame, which identifies contention in the synchronized
+ * sections and shared maps of iciql and in the pool or driver calls made
+ * by iciql.
+ * <p>
+ * <pre>
+ * mvn clean test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.iciql.test.LoadTest \
+ *     -Dexec.args="--threads 16 --reads 90 --jsonFile load.json"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String[][] DATABASES = {
+            {"H2", "jdbc:h2:mem:iciqlload"},
+            {"HSQL", "jdbc:hsqldb:mem:iciqlload"},
+            {"Derby", "jdbc:derby:memory:iciqlload;create=true"},
+            {"SQLite", "jdbc:sqlite:file::memory:?cache=shared"}};
+
+    private static final String[] CATEGORIES = {"Beverages", "Condiments", "Produce", "Meat/Poultry",
+            "Seafood"};
+
+    // ids of the rows inserted by a worker
+    private static final int FIRST_ID = 100000;
+    private static final int IDS_PER_WORKER = 10000000;
+
+    private static final int MAX_HOTSPOTS = 10;
+
+    private static PrintStream out = System.out;
+
+    public static void main(String... args) throws Exception {
+        Params params = new Params();
+        JCommander jc = new JCommander(params);
+        try {
+            jc.parse(args);
+        } catch (ParameterException t) {
+            usage(jc, t);
+        }
+        if (params.threads < 1 || params.reads < 0 || params.reads > 100) {
+            usage(jc, new ParameterException("threads must be positive and reads must be 0-100"));
+        }
+
+        String divider = buildDivider('-', 79);
+        out.println(buildDivider('*', 79));
+        out.println(MessageFormat.format("{0} {1} load test: {2} threads, {3}% reads, {4}s warmup, {5}s measured",
+                Constants.NAME, Constants.getVersion(), params.threads, params.reads, params.warmup,
+                params.duration));
+        out.println(buildDivider('*', 79));
+
+        List<Result> results = Utils.newArrayList();
+        for (String name : params.databases.split(",")) {
+            String url = getUrl(name.trim());
+            out.println(divider);
+            out.println("Loading " + name.trim() + " " + url);
+            out.println(divider);
+            Result result = run(name.trim(), url, params);
+            results.add(result);
+            show(result);
+        }
+        out.println(divider);
+
+        if (!StringUtils.isNullOrEmpty(params.csvFile)) {
+            writeCsv(params.csvFile, results);
+        }
+        if (!StringUtils.isNullOrEmpty(params.jsonFile)) {
+            writeJson(params.jsonFile, results);
+        }
+        System.exit(0);
+    }
+
+    private static String getUrl(String name) {
+        for (String[] database : DATABASES) {
+            if (database[0].equalsIgnoreCase(name)) {
+                return database[1];
+            }
+        }
+        throw new IllegalArgumentException("Unknown database " + name);
+    }
+
+    /**
+     * Runs the load against one database.
+     */
+    static Result run(String name, String url, Params params) throws Exception {
+        ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(url, "sa", "");
+        GenericObjectPool pool = new GenericObjectPool();
+        pool.setMaxActive(params.threads);
+        pool.setMaxIdle(params.threads);
+        pool.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_BLOCK);
+        new PoolableConnectionFactory(connectionFactory, pool, null, null, false, true);
+        PoolingDataSource dataSource = new PoolingDataSource(pool);
+
+        Db db = Db.open(dataSource);
+        try {
+            db.dropTable(Product.class);
+            db.insertAll(Product.getList());
+            name = name + " " + db.getConnection().getMetaData().getDatabaseProductVersion();
+        } finally {
+            db.close();
+        }
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean.isThreadContentionMonitoringSupported()) {
+            threadMXBean.setThreadContentionMonitoringEnabled(true);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[params.threads];
+        long[] ids = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, dataSource, params.reads, start);
+            workers[i].start();
+            ids[i] = workers[i].getId();
+        }
+        start.countDown();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(params.warmup));
+
+        // measure
+        long[] blocked = new long[4];
+        contention(threadMXBean, ids, blocked, -1);
+        for (Worker worker : workers) {
+            worker.measuring = true;
+        }
+        Sampler sampler = new Sampler(threadMXBean, ids, params.sampleInterval);
+        long begin = System.nanoTime();
+        sampler.start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(params.duration));
+        for (Worker worker : workers) {
+            worker.measuring = false;
+        }
+        long elapsed = System.nanoTime() - begin;
+        sampler.running = false;
+        sampler.join();
+        contention(threadMXBean, ids, blocked, 1);
+
+        for (Worker worker : workers) {
+            worker.running = false;
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+
+        db = Db.open(dataSource);
+        try {
+            db.dropTable(Product.class);
+        } finally {
+            db.close();
+        }
+        pool.close();
+
+        Result result = new Result(name, params.threads, params.reads, elapsed, workers);
+        result.blockedCount = blocked[0];
+        result.blockedMillis = blocked[1];
+        result.waitedCount = blocked[2];
+        result.waitedMillis = blocked[3];
+        result.samples = sampler.samples;
+        result.hotspots = sampler.getHotspots(MAX_HOTSPOTS);
+        return result;
+    }
+
+    /**
+     * Adds the blocked and waited counts and times of the threads, multiplied
+     * by sign, to the totals.
+     */
+    private static void contention(ThreadMXBean threadMXBean, long[] ids, long[] totals, int sign) {
+        for (ThreadInfo info : threadMXBean.getThreadInfo(ids)) {
+            if (info == null) {
+                continue;
+            }
+            totals[0] += sign * info.getBlockedCount();
+            totals[1] += sign * Math.max(0, info.getBlockedTime());
+            totals[2] += sign * info.getWaitedCount();
+            totals[3] += sign * Math.max(0, info.getWaitedTime());
+        }
+    }
+
+    private static void show(Result result) {
+        out.println(MessageFormat.format("{0} operations ({1} reads, {2} writes, {3} errors) in {4,number,0.0}s",
+                result.operations, result.reads, result.writes, result.errors, result.seconds));
+        if (result.firstError != null) {
+            out.println("first error: " + result.firstError);
+        }
+        out.println(MessageFormat.format("{0,number,0} ops/s, latency ms: mean {1,number,0.000}, "
+                        + "p50 {2,number,0.000}, p95 {3,number,0.000}, p99 {4,number,0.000}, max {5,number,0.000}",
+                result.throughput, result.meanMillis, result.p50Millis, result.p95Millis, result.p99Millis,
+                result.maxMillis));
+        out.println(MessageFormat.format("blocked {0} times for {1} ms, waited {2} times for {3} ms",
+                result.blockedCount, result.blockedMillis, result.waitedCount, result.waitedMillis));
+        if (result.hotspots.isEmpty()) {
+            out.println("no contention sampled in iciql frames");
+            return;
+        }
+        out.println(MessageFormat.format("contention hotspots ({0} thread samples, * blocked in iciql code)",
+                result.samples));
+        for (Hotspot hotspot : result.hotspots) {
+            out.println(MessageFormat.format("  {0} {1} {2} {3}",
+                    StringUtils.pad(MessageFormat.format("{0,number,0.0}%", hotspot.percent), 6, " ", false),
+                    StringUtils.pad(hotspot.state, 13, " ", true),
+                    hotspot.inIciql ? "*" : " ", hotspot.frame));
+            if (!hotspot.inIciql) {
+                out.println(MessageFormat.format("  {0} at {1}", StringUtils.pad("", 22, " ", true),
+                        hotspot.blockedAt));
+            }
+        }
+    }
+
+    private static void writeCsv(String file, List<Result> results) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.append("database,threads,reads_percent,operations,reads,writes,errors,seconds,"
+                    + "ops_per_sec,mean_ms,p50_ms,p95_ms,p99_ms,max_ms,blocked_count,blocked_ms,"
+                    + "waited_count,waited_ms\n");
+            for (Result r : results) {
+                writer.append(MessageFormat.format("\"{0}\",{1,number,0},{2,number,0},{3,number,0},"
+                                + "{4,number,0},{5,number,0},{6,number,0},{7,number,0.000},{8,number,0.0},",
+                        r.database, r.threads, r.readsPercent, r.operations, r.reads, r.writes, r.errors,
+                        r.seconds, r.throughput));
+                writer.append(MessageFormat.format("{0,number,0.000},{1,number,0.000},{2,number,0.000},"
+                                + "{3,number,0.000},{4,number,0.000},{5,number,0},{6,number,0},{7,number,0},"
+                                + "{8,number,0}\n",
+                        r.meanMillis, r.p50Millis, r.p95Millis, r.p99Millis, r.maxMillis, r.blockedCount,
+                        r.blockedMillis, r.waitedCount, r.waitedMillis));
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeJson(String file, List<Result> results) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.append(gson.toJson(results));
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void usage(JCommander jc, ParameterException t) {
+        System.out.println(Constants.NAME + " load test v" + Constants.getVersion());
+        System.out.println();
+        if (t != null) {
+            System.out.println(t.getMessage());
+            System.out.println();
+        }
+        if (jc != null) {
+            jc.usage();
+        }
+        System.exit(0);
+    }
+
+    private static String buildDivider(char c, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs the operation mix until stopped and records the latencies of the
+     * measured period. The latencies are kept per worker so that measuring
+     * does not add contention of its own.
+     */
+    private static class Worker extends Thread {
+
+        final DataSource dataSource;
+        final int readsPercent;
+        final CountDownLatch start;
+        final Random random;
+        final Product p = new Product();
+        final int firstId;
+        int nextId;
+        volatile boolean running = true;
+        volatile boolean measuring;
+
+        long[] latencies = new long[1024];
+        int count;
+        long reads;
+        long writes;
+        long errors;
+        String error;
+
+        Worker(int index, DataSource dataSource, int readsPercent, CountDownLatch start) {
+            super("iciql-load-" + index);
+            this.dataSource = dataSource;
+            this.readsPercent = readsPercent;
+            this.start = start;
+            this.random = new Random(index);
+            this.firstId = FIRST_ID + index * IDS_PER_WORKER;
+            this.nextId = firstId;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            while (running) {
+                boolean read = random.nextInt(100) < readsPercent;
+                boolean failed = false;
+                long begin = System.nanoTime();
+                try {
+                    if (read) {
+                        read();
+                    } else {
+                        write();
+                    }
+                } catch (Exception e) {
+                    failed = true;
+                    if (error == null) {
+                        error = e.getMessage();
+                    }
+                }
+                long nanos = System.nanoTime() - begin;
+                if (measuring) {
+                    record(nanos, read, failed);
+                }
+            }
+        }
+
+        private void record(long nanos, boolean read, boolean failed) {
+            if (failed) {
+                errors++;
+                return;
+            }
+            if (read) {
+                reads++;
+            } else {
+                writes++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        private void read() {
+            final Product p = this.p;
+            Db db = Db.open(dataSource);
+            try {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        db.from(p).where(p.category).is(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                                .orderBy(p.productId).select();
+                        break;
+                    case 1:
+                        db.from(p).where(p.productId).is(1 + random.nextInt(10)).selectFirst();
+                        break;
+                    case 2:
+                        // function tokens
+                        db.from(p).where(Function.length(p.productName)).exceeds(random.nextInt(20))
+                                .selectCount();
+                        break;
+                    default:
+                        // decompiled filter
+                        final String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                        db.from(p).where(new Filter() {
+                            @Override
+                            public boolean where() {
+                                return p.category.equals(category);
+                            }
+                        }).select();
+                }
+            } finally {
+                db.close();
+            }
+        }
+
+        private void write() {
+            Db db = Db.open(dataSource);
+            try {
+                if (nextId == firstId || random.nextBoolean()) {
+                    Product product = new Product();
+                    product.productId = nextId++;
+                    product.productName = "Load " + product.productId;
+                    product.category = "Load";
+                    product.unitPrice = 1d;
+                    product.unitsInStock = 0;
+                    db.insert(product);
+                } else {
+                    int id = firstId + random.nextInt(nextId - firstId);
+                    db.from(p).set(p.unitsInStock).to(random.nextInt(100)).where(p.productId).is(id).update();
+                }
+            } finally {
+                db.close();
+            }
+        }
+    }
+
+    /**
+     * Samples the stacks of the worker threads.
+     */
+    private static class Sampler extends Thread {
+
+        final ThreadMXBean threadMXBean;
+        final long[] ids;
+        final long interval;
+        final Map<String, Hotspot> hotspots = Utils.newHashMap();
+        volatile boolean running = true;
+        long samples;
+
+        Sampler(ThreadMXBean threadMXBean, long[] ids, long interval) {
+            super("iciql-load-sampler");
+            this.threadMXBean = threadMXBean;
+            this.ids = ids;
+            this.interval = interval;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                for (ThreadInfo info : threadMXBean.getThreadInfo(ids, Integer.MAX_VALUE)) {
+                    if (info != null) {
+                        sample(info);
+                    }
+                }
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void sample(ThreadInfo info) {
+            samples++;
+            Thread.State state = info.getThreadState();
+            if (state != Thread.State.BLOCKED && state != Thread.State.WAITING
+                    && state != Thread.State.TIMED_WAITING) {
+                return;
+            }
+            StackTraceElement[] stack = info.getStackTrace();
+            for (int i = 0; i < stack.length; i++) {
+                if (isIciql(stack[i])) {
+                    String frame = describe(stack[i], true);
+                    String blockedAt = describe(stack[0], false);
+                    String key = state + " " + frame + " " + blockedAt;
+                    Hotspot hotspot = hotspots.get(key);
+                    if (hotspot == null) {
+                        hotspot = new Hotspot(state.name(), frame, blockedAt, i == 0);
+                        hotspots.put(key, hotspot);
+                    }
+                    hotspot.samples++;
+                    return;
+                }
+            }
+        }
+
+        private String describe(StackTraceElement frame, boolean line) {
+            String method = frame.getClassName() + "." + frame.getMethodName();
+            if (line && frame.getLineNumber() > 0) {
+                return method + ":" + frame.getLineNumber();
+            }
+            return method;
+        }
+
+        private boolean isIciql(StackTraceElement frame) {
+            String className = frame.getClassName();
+            return className.startsWith("com.iciql.") && !className.startsWith("com.iciql.test.");
+        }
+
+        List<Hotspot> getHotspots(int max) {
+            List<Hotspot> list = new ArrayList<Hotspot>(hotspots.values());
+            Collections.sort(list, new Comparator<Hotspot>() {
+                @Override
+                public int compare(Hotspot o1, Hotspot o2) {
+                    return o1.samples < o2.samples ? 1 : (o1.samples == o2.samples ? 0 : -1);
+                }
+            });
+            list = new ArrayList<Hotspot>(list.subList(0, Math.min(max, list.size())));
+            for (Hotspot hotspot : list) {
+                hotspot.percent = samples == 0 ? 0 : (100d * hotspot.samples) / samples;
+            }
+            return list;
+        }
+    }
+
+    /**
+     * A stack location where worker threads were sampled BLOCKED or WAITING.
+     */
+    static class Hotspot {
+        final String state;
+        final String frame;
+        final String blockedAt;
+        final boolean inIciql;
+        long samples;
+        double percent;
+
+        Hotspot(String state, String frame, String blockedAt, boolean inIciql) {
+            this.state = state;
+            this.frame = frame;
+            this.blockedAt = blockedAt;
+            this.inIciql = inIciql;
+        }
+    }
+
+    /**
+     * The measurements of one database.
+     */
+    static class Result {
+        final String database;
+        final int threads;
+        final int readsPercent;
+        final double seconds;
+        long operations;
+        long reads;
+        long writes;
+        long errors;
+        String firstError;
+        double throughput;
+        double meanMillis;
+        double p50Millis;
+        double p95Millis;
+        double p99Millis;
+        double maxMillis;
+        long blockedCount;
+        long blockedMillis;
+        long waitedCount;
+        long waitedMillis;
+        long samples;
+        List<Hotspot> hotspots;
+
+        Result(String database, int threads, int readsPercent, long elapsedNanos, Worker[] workers) {
+            this.database = database;
+            this.threads = threads;
+            this.readsPercent = readsPercent;
+            this.seconds = elapsedNanos / 1e9d;
+            int count = 0;
+            for (Worker worker : workers) {
+                count += worker.count;
+                reads += worker.reads;
+                writes += worker.writes;
+                errors += worker.errors;
+                if (firstError == null) {
+                    firstError = worker.error;
+                }
+            }
+            long[] latencies = new long[count];
+            int pos = 0;
+            long total = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies, 0, latencies, pos, worker.count);
+                pos += worker.count;
+            }
+            Arrays.sort(latencies);
+            for (long latency : latencies) {
+                total += latency;
+            }
+            operations = count;
+            throughput = count / seconds;
+            if (count > 0) {
+                meanMillis = total / 1e6d / count;
+                p50Millis = percentile(latencies, 50);
+                p95Millis = percentile(latencies, 95);
+                p99Millis = percentile(latencies, 99);
+                maxMillis = latencies[count - 1] / 1e6d;
+            }
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6d;
+        }
+    }
+
+    /**
+     * Command-line parameters for LoadTest.
+     */
+    @Parameters(separators = " ")
+    static class Params {
+
+        @Parameter(names = {"--databases"}, description = "Comma-separated databases: H2, HSQL, Derby, SQLite", required = false)
+        public String databases = "H2,HSQL,Derby,SQLite";
+
+        @Parameter(names = {"--threads"}, description = "Number of worker threads", required = false)
+        public int threads = 2 * Runtime.getRuntime().availableProcessors();
+
+        @Parameter(names = {"--reads"}, description = "Percentage of read operations", required = false)
+        public int reads = 80;
+
+        @Parameter(names = {"--warmup"}, description = "Warmup seconds", required = false)
+        public int warmup = 2;
+
+        @Parameter(names = {"--duration"}, description = "Measured seconds", required = false)
+        public int duration = 10;
+
+        @Parameter(names = {"--sampleInterval"}, description = "Thread sampling interval in milliseconds", required = false)
+        public int sampleInterval = 5;
+
+        @Parameter(names = {"--csvFile"}, description = "CSV results file", required = false)
+        public String csvFile;
+
+        @Parameter(names = {"--jsonFile"}, description = "JSON results file", required = false)
+        public String jsonFile;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.test.models.Product;
+import com.iciql.util.IciqlLogger;
+import com.iciql.util.IciqlLogger.IciqlListener;
+import com.iciql.util.IciqlLogger.OverflowPolicy;
+import com.iciql.util.IciqlLogger.StatementType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the delivery of logged statements to listeners.
+ */
+public class LoggerTest {
+
+    @After
+    public void tearDown() {
+        IciqlLogger.setOverflowPolicy(OverflowPolicy.DROP);
+    }
+
+    @Test
+    public void testDelivery() {
+        final AtomicInteger count = new AtomicInteger();
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                if (type == StatementType.WARN && statement.startsWith("LoggerTest")) {
+                    count.incrementAndGet();
+                }
+            }
+        };
+        IciqlLogger.registerListener(listener);
+        try {
+            for (int i = 0; i < 100; i++) {
+                IciqlLogger.warn("LoggerTest {0}", i);
+            }
+            assertTrue(IciqlLogger.flush(5000));
+            assertEquals(100, count.get());
+        } finally {
+            IciqlLogger.unregisterListener(listener);
+        }
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                try {
+                    // a slow listener
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        IciqlLogger.setOverflowPolicy(OverflowPolicy.DROP);
+        IciqlLogger.registerListener(listener);
+        try {
+            long dropped = IciqlLogger.getDroppedCount();
+            for (int i = 0; i < 2 * IciqlLogger.getBufferSize(); i++) {
+                IciqlLogger.warn("LoggerTest");
+            }
+            assertTrue(IciqlLogger.getDroppedCount() > dropped);
+        } finally {
+            release.countDown();
+            IciqlLogger.unregisterListener(listener);
+        }
+        assertTrue(IciqlLogger.flush(5000));
+    }
+
+    @Test
+    public void testShutdownAndBufferSize() {
+        final AtomicInteger count = new AtomicInteger();
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                if (type == StatementType.WARN && statement.startsWith("LoggerTest")) {
+                    count.incrementAndGet();
+                }
+            }
+        };
+        IciqlLogger.registerListener(listener);
+        try {
+            IciqlLogger.warn("LoggerTest");
+            assertTrue(IciqlLogger.flush(5000));
+            IciqlLogger.shutdown();
+
+            // the next statement starts a new delivery thread
+            IciqlLogger.warn("LoggerTest");
+            assertTrue(IciqlLogger.flush(5000));
+            assertEquals(2, count.get());
+
+            IciqlLogger.setBufferSize(16);
+            assertEquals(16, IciqlLogger.getBufferSize());
+            for (int i = 0; i < 10; i++) {
+                IciqlLogger.warn("LoggerTest");
+            }
+            assertTrue(IciqlLogger.flush(5000));
+            assertEquals(12, count.get());
+        } finally {
+            IciqlLogger.setBufferSize(IciqlLogger.DEFAULT_BUFFER_SIZE);
+            IciqlLogger.unregisterListener(listener);
+        }
+    }
+
+    @Test
+    public void testBufferSizeWhileLogging() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                if (type == StatementType.WARN && statement.startsWith("LoggerTest")) {
+                    count.incrementAndGet();
+                }
+            }
+        };
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] threads = new Thread[4];
+        IciqlLogger.registerListener(listener);
+        try {
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    public void run() {
+                        while (running.get()) {
+                            IciqlLogger.warn("LoggerTest");
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (int i = 0; i < 200; i++) {
+                IciqlLogger.setBufferSize(16 + i % 2);
+            }
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // the delivery thread must not be left waiting on a replaced buffer
+            assertTrue(IciqlLogger.flush(5000));
+            count.set(0);
+            IciqlLogger.warn("LoggerTest");
+            assertTrue(IciqlLogger.flush(5000));
+            assertEquals(1, count.get());
+        } finally {
+            running.set(false);
+            IciqlLogger.setBufferSize(IciqlLogger.DEFAULT_BUFFER_SIZE);
+            IciqlLogger.unregisterListener(listener);
+        }
+    }
+
+    @Test
+    public void testListenerFailure() {
+        final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+        final AtomicInteger count = new AtomicInteger();
+        IciqlListener failing = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                throw new IllegalStateException(statement);
+            }
+        };
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                if (type == StatementType.WARN && statement.startsWith("LoggerTest")) {
+                    count.incrementAndGet();
+                }
+            }
+        };
+        UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new UncaughtExceptionHandler() {
+            public void uncaughtException(Thread t, Throwable e) {
+                errors.add(e);
+            }
+        });
+        IciqlLogger.registerListener(failing);
+        IciqlLogger.registerListener(listener);
+        try {
+            IciqlLogger.warn("LoggerTest");
+            assertTrue(IciqlLogger.flush(5000));
+            // the other listeners still get the statement
+            assertEquals(1, count.get());
+            assertTrue(errors.size() > 0);
+            assertTrue(errors.get(0) instanceof IllegalStateException);
+        } finally {
+            IciqlLogger.unregisterListener(failing);
+            IciqlLogger.unregisterListener(listener);
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void testSlowStatements() {
+        final List<String> messages = new CopyOnWriteArrayList<String>();
+        IciqlListener listener = new IciqlListener() {
+            @Override
+            public void logIciql(StatementType type, String statement) {
+                if (type == StatementType.SLOW) {
+                    messages.add(statement);
+                }
+            }
+        };
+        Db db = IciqlSuite.openNewDb();
+        IciqlLogger.registerListener(listener);
+        try {
+            db.insertAll(Product.getList());
+            db.setSlowStatementThreshold(1, TimeUnit.NANOSECONDS);
+            Product p = new Product();
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                name.append('x');
+            }
+            db.from(p).where(p.category).is("Condiments").or(p.productName).is(name.toString()).select();
+            assertTrue(IciqlLogger.flush(5000));
+
+            assertEquals(1, messages.size());
+            String message = messages.get(0);
+            assertTrue(message, message.startsWith("slow statement "));
+            assertTrue(message, message.contains("5 rows, " + Product.class.getName()));
+            assertTrue(message, message.contains("['Condiments', 'xxxx"));
+            assertTrue(message, message.contains("...(200 chars)']"));
+
+            // below the threshold
+            messages.clear();
+            db.setSlowStatementThreshold(1, TimeUnit.HOURS);
+            db.from(p).select();
+            assertTrue(IciqlLogger.flush(5000));
+            assertEquals(0, messages.size());
+        } finally {
+            IciqlLogger.unregisterListener(listener);
+            db.close();
+        }
+    }
+}
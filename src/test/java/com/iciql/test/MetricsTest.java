@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.test.models.Product;
+import com.iciql.util.IciqlMetrics;
+import com.iciql.util.StatementMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the statement metrics.
+ */
+public class MetricsTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+        db.insertAll(Product.getList());
+        IciqlMetrics.reset();
+        IciqlMetrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        IciqlMetrics.setEnabled(false);
+        IciqlMetrics.reset();
+        db.close();
+    }
+
+    @Test
+    public void testSelectMetrics() throws Exception {
+        Product p = new Product();
+        assertEquals(2, db.from(p).where(p.productId).oneOf(1, 2).select().size());
+        assertEquals(3, db.from(p).where(p.productId).oneOf(1, 2, 3).select().size());
+
+        // both IN lists have the same fingerprint
+        StatementMetrics select = null;
+        for (StatementMetrics metrics : IciqlMetrics.getSnapshot()) {
+            if ("SELECT".equals(metrics.getType()) && metrics.getSql().endsWith("IN(?)")) {
+                select = metrics;
+            }
+        }
+        assertNotNull(select);
+        assertTrue(select.getTable().equalsIgnoreCase("Product"));
+        assertEquals(2, select.getExecutions());
+        assertEquals(5, select.getRows());
+        assertTrue(select.getExecutionP50() > 0);
+        assertTrue(select.getExecutionP50() <= select.getExecutionP99());
+        assertTrue(select.getExecutionP99() <= select.getExecutionMax());
+
+        Object executions = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName("com.iciql:type=Metrics"), "Executions");
+        assertTrue(((Long) executions) >= 2);
+    }
+
+    @Test
+    public void testDisabled() {
+        IciqlMetrics.setEnabled(false);
+        Product p = new Product();
+        db.from(p).select();
+        List<StatementMetrics> snapshot = IciqlMetrics.getSnapshot();
+        assertEquals(0, snapshot.size());
+    }
+}
@@ -19,6 +19,7 @@ package com.iciql.test;
 
 import com.iciql.Db;
 import com.iciql.DbInspector;
+import com.iciql.IciqlException;
 import com.iciql.ValueCount;
 import com.iciql.ValidationRemark;
 import com.iciql.test.models.Product;
@@ -33,12 +34,15 @@ import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.iciql.test.IciqlSuite.assertEqualsIgnoreCase;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test that the mapping between classes and tables is done correctly.
@@ -226,4 +230,93 @@ public class ModelsTest {
         assertEquals(1, seafoodProducts.size());
     }
 
+    @Test
+    public void testSharedTableDefinitions() {
+        // a second Db reuses the definitions mapped by the first one
+        Db other = IciqlSuite.openCurrentDb();
+        try {
+            Product p = new Product();
+            assertEquals(1, other.from(p).where(p.category).is("Seafood").selectCount());
+
+            // invalidated models are mapped again
+            Db.invalidateTableDefinition(Product.class);
+            assertEquals(1, db.from(p).where(p.category).is("Seafood").selectCount());
+            Db.clearTableDefinitions();
+            Db third = IciqlSuite.openCurrentDb();
+            try {
+                Product q = new Product();
+                assertEquals(2, third.from(q).where(q.category).is("Beverages").selectCount());
+            } finally {
+                third.close();
+            }
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testSchemaRegistry() {
+        // a table dropped by another Db is created again
+        Db other = IciqlSuite.openCurrentDb();
+        try {
+            other.dropTable(Product.class);
+        } finally {
+            other.close();
+        }
+        other = IciqlSuite.openCurrentDb();
+        try {
+            other.insertAll(Product.getList());
+            assertEquals(10, db.from(new Product()).selectCount());
+        } finally {
+            other.close();
+        }
+
+        // expired and reset verifications are checked again
+        Db.setSchemaRegistryTtl(1, TimeUnit.NANOSECONDS);
+        other = IciqlSuite.openCurrentDb();
+        try {
+            Product p = new Product();
+            assertEquals(10, other.from(p).selectCount());
+            Db.resetSchemaRegistry();
+            assertEquals(10, other.from(p).where(p.productId).atLeast(0).selectCount());
+        } finally {
+            Db.setSchemaRegistryTtl(0, TimeUnit.NANOSECONDS);
+            other.close();
+        }
+    }
+
+    @Test
+    public void testInMemoryReopen() {
+        // an in-memory database is discarded with its last connection
+        String url = "jdbc:h2:mem:reopen" + System.nanoTime();
+        for (int i = 0; i < 2; i++) {
+            Db mem = Db.open(url);
+            try {
+                mem.insertAll(Product.getList());
+                assertEquals(10, mem.from(new Product()).selectCount());
+            } finally {
+                mem.close();
+            }
+        }
+    }
+
+    @Test
+    public void testDroppedTableNotRecreated() throws SQLException {
+        // a table dropped outside of iciql after it was checked is reported
+        Product p = new Product();
+        assertEquals(10, db.from(p).selectCount());
+        Statement stat = db.getConnection().createStatement();
+        try {
+            stat.execute("DROP TABLE Product");
+        } finally {
+            stat.close();
+        }
+        try {
+            db.from(p).selectCount();
+            fail("the table should be missing");
+        } catch (IciqlException e) {
+            assertEquals(IciqlException.CODE_OBJECT_NOT_FOUND, e.getIciqlCode());
+        }
+    }
+
 }
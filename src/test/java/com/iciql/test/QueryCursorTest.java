@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.IciqlException;
+import com.iciql.QueryCursor;
+import com.iciql.RowHandler;
+import com.iciql.SQLDialectPostgreSQL;
+import com.iciql.test.models.Product;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the streaming cursor API.
+ */
+public class QueryCursorTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+        db.insertAll(Product.getList());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testIterate() {
+        Product p = new Product();
+        List<Product> expected = db.from(p).orderBy(p.productId).select();
+        List<Product> actual = new ArrayList<Product>();
+        for (Product product : db.from(p).orderBy(p.productId).fetchSize(3).iterate()) {
+            actual.add(product);
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).productName, actual.get(i).productName);
+        }
+    }
+
+    @Test
+    public void testIterateWhere() {
+        Product p = new Product();
+        QueryCursor<Product> cursor = db.from(p).where(p.category).is("Beverages").iterate();
+        assertTrue(cursor.hasNext());
+        assertTrue(cursor.hasNext());
+        assertEquals("Beverages", cursor.next().category);
+        assertEquals("Beverages", cursor.next().category);
+        assertFalse(cursor.hasNext());
+        try {
+            cursor.next();
+            fail("expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        cursor.close();
+    }
+
+    @Test
+    public void testEmptyResult() {
+        Product p = new Product();
+        QueryCursor<Product> cursor = db.from(p).where(p.category).is("Nothing").iterate();
+        assertFalse(cursor.hasNext());
+        cursor.close();
+    }
+
+    @Test
+    public void testEarlyClose() {
+        db.setStatementCacheSize(4);
+        Product p = new Product();
+        for (int i = 0; i < 3; i++) {
+            QueryCursor<Product> cursor = db.from(p).orderBy(p.productId).iterate();
+            assertEquals(1, cursor.next().productId.intValue());
+            cursor.close();
+            cursor.close();
+        }
+        // the statement is released on close and reused
+        assertEquals(1, db.getStatementCacheMisses());
+        assertEquals(2, db.getStatementCacheHits());
+    }
+
+    @Test
+    public void testForEach() {
+        Product p = new Product();
+        final List<String> names = new ArrayList<String>();
+        db.from(p).where(p.category).is("Condiments").orderBy(p.productId).forEach(new RowHandler<Product>() {
+            @Override
+            public void handle(Product row) {
+                names.add(row.productName);
+            }
+        });
+        assertEquals(5, names.size());
+        assertEquals("Aniseed Syrup", names.get(0));
+    }
+
+    @Test
+    public void testQueryHints() {
+        db.setDefaultFetchSize(4);
+        Product p = new Product();
+        List<Product> list = db.from(p).where(p.productId).atLeast(1).maxRows(3).select();
+        assertEquals(3, list.size());
+        assertEquals(10, db.from(p).fetchSize(2).select().size());
+    }
+
+    @Test
+    public void testCachedStatementHintsReset() {
+        db.setStatementCacheSize(4);
+        Product p = new Product();
+        assertEquals(2, db.from(p).where(p.productId).atLeast(1).maxRows(2).select().size());
+        // the same cached statement without max rows
+        assertEquals(10, db.from(p).where(p.productId).atLeast(1).select().size());
+        assertEquals(1, db.getStatementCacheHits());
+    }
+
+    @Test
+    public void testIterateObjects() throws Exception {
+        ResultSet rs = db.executeQuery("select * from Product order by productId");
+        int count = 0;
+        for (Product product : db.<Product>iterateObjects(Product.class, true, rs)) {
+            assertEquals(++count, product.productId.intValue());
+        }
+        assertEquals(10, count);
+        assertTrue(rs.isClosed());
+    }
+
+    @Test
+    public void testMappingFailureClosesCursor() throws Exception {
+        // the mapping of the missing columns fails in the constructor
+        ResultSet rs = db.executeQuery("select productId from Product");
+        try {
+            db.<Product>iterateObjects(Product.class, true, rs);
+            fail("columns should be missing");
+        } catch (IciqlException e) {
+            assertTrue(rs.isClosed());
+        }
+    }
+
+    @Test
+    public void testPostgreSQLFetchSizeInAutoCommit() throws SQLException {
+        Assume.assumeTrue(IciqlSuite.isH2(db));
+        SQLDialectPostgreSQL dialect = new SQLDialectPostgreSQL();
+        PreparedStatement prep = db.getConnection().prepareStatement("select * from Product");
+        try {
+            // the fetch size is dropped instead of switching auto-commit
+            dialect.configureQuery(db, prep, 3, 0);
+            assertTrue(prep.getFetchSize() != 3);
+            assertTrue(db.getConnection().getAutoCommit());
+        } finally {
+            prep.close();
+        }
+
+        db.getConnection().setAutoCommit(false);
+        prep = db.getConnection().prepareStatement("select * from Product");
+        try {
+            dialect.configureQuery(db, prep, 3, 0);
+            assertEquals(3, prep.getFetchSize());
+            assertFalse(db.getConnection().getAutoCommit());
+        } finally {
+            prep.close();
+            db.getConnection().setAutoCommit(true);
+        }
+    }
+}
@@ -384,6 +384,25 @@ public class SamplesTest {
         assertEquals(1, count);
     }
 
+    @Test
+    public void testRepeatedFilter() {
+        // the decompiled filter is reused with the values of each instance
+        assertEquals(1, countComplexObjects(1, "hello"));
+        assertEquals(0, countComplexObjects(0, "hello"));
+        assertEquals(0, countComplexObjects(1, "world"));
+        assertEquals(1, countComplexObjects(1, "hello"));
+    }
+
+    private long countComplexObjects(final int x, final String name) {
+        final ComplexObject co = new ComplexObject();
+        return db.from(co).where(new Filter() {
+            @Override
+            public boolean where() {
+                return co.id == x && co.name.equals(name);
+            }
+        }).selectCount();
+    }
+
     @Test
     public void testLimitOffset() {
         Set<Integer> ids = new HashSet<Integer>();
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.IciqlException;
+import com.iciql.test.models.Product;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the prepared statement cache.
+ */
+public class StatementCacheTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+        db.insertAll(Product.getList());
+        db.setStatementCacheSize(2);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        Product p = new Product();
+        for (int i = 0; i < 5; i++) {
+            List<Product> list = db.from(p).where(p.category).is("Beverages").select();
+            assertEquals(2, list.size());
+        }
+        assertEquals(1, db.getStatementCacheMisses());
+        assertEquals(4, db.getStatementCacheHits());
+        assertEquals(0, db.getStatementCacheEvictions());
+    }
+
+    @Test
+    public void testEviction() {
+        Product p = new Product();
+        db.from(p).where(p.productId).is(1).selectFirst();
+        db.from(p).where(p.productName).is("Chai").selectFirst();
+        db.from(p).where(p.category).is("Beverages").selectFirst();
+        assertEquals(3, db.getStatementCacheMisses());
+        assertEquals(1, db.getStatementCacheEvictions());
+
+        // the first statement was evicted
+        db.from(p).where(p.productId).is(1).selectFirst();
+        assertEquals(4, db.getStatementCacheMisses());
+        assertEquals(0, db.getStatementCacheHits());
+    }
+
+    @Test
+    public void testReleaseAfterBindFailure() {
+        Assume.assumeTrue(IciqlSuite.isH2(db));
+        Product p = new Product();
+        try {
+            db.from(p).where("productId = ?", new Object()).select();
+            fail("the parameter should not be bound");
+        } catch (IciqlException e) {
+            // expected
+        }
+        // the statement of the failed query was returned to the cache
+        assertEquals(1, db.from(p).where("productId = ?", 1).select().size());
+        assertEquals(1, db.getStatementCacheMisses());
+        assertEquals(1, db.getStatementCacheHits());
+    }
+
+    @Test
+    public void testParameterRebinding() {
+        // the same cached statement is re-bound for each lookup
+        Product p = new Product();
+        List<Product> list = db.from(p).where(p.category).is("Condiments").select();
+        for (Product product : list) {
+            Product q = new Product();
+            Product match = db.from(q).where(q.productId).is(product.productId).selectFirst();
+            assertEquals(product.productName, match.productName);
+        }
+        assertTrue(db.getStatementCacheHits() > 0);
+    }
+
+    @Test
+    public void testUpdatesAndDisable() {
+        Product p = new Product();
+        Product chai = db.from(p).where(p.productName).is("Chai").selectFirst();
+        chai.unitsInStock = 40;
+        db.update(chai);
+        chai.unitsInStock = 39;
+        db.update(chai);
+        assertEquals(1, db.getStatementCacheHits());
+
+        db.setStatementCacheSize(0);
+        assertEquals(0, db.getStatementCacheSize());
+        assertEquals(0, db.getStatementCacheHits());
+        assertEquals(39, db.from(p).where(p.productName).is("Chai").selectFirst().unitsInStock.intValue());
+    }
+}
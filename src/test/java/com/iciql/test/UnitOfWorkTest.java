@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 James Moger.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iciql.test;
+
+import com.iciql.Db;
+import com.iciql.IciqlException;
+import com.iciql.Transaction;
+import com.iciql.test.models.CategoryAnnotationOnly;
+import com.iciql.test.models.ProductAnnotationOnlyWithForeignKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the transaction handles and units of work.
+ */
+public class UnitOfWorkTest {
+
+    private Db db;
+
+    @Before
+    public void setUp() {
+        db = IciqlSuite.openNewDb();
+
+        // tables creation, DDL commits the transaction in some databases
+        db.from(new CategoryAnnotationOnly()).selectCount();
+        db.from(new ProductAnnotationOnlyWithForeignKey()).selectCount();
+    }
+
+    @After
+    public void tearDown() {
+        db.dropTable(ProductAnnotationOnlyWithForeignKey.class);
+        db.dropTable(CategoryAnnotationOnly.class);
+        db.close();
+    }
+
+    @Test
+    public void testCommit() throws Exception {
+        int count = db.inTransaction(new Db.Work<Integer>() {
+            @Override
+            public Integer run(Db db) throws Exception {
+                assertFalse(db.getConnection().getAutoCommit());
+                db.insertAll(CategoryAnnotationOnly.getList());
+                db.insertAll(ProductAnnotationOnlyWithForeignKey.getList());
+                return ProductAnnotationOnlyWithForeignKey.getList().size();
+            }
+        });
+        assertTrue(db.getConnection().getAutoCommit());
+        assertNull(db.getTransaction());
+        assertEquals(count, db.from(new ProductAnnotationOnlyWithForeignKey()).selectCount());
+        assertEquals(CategoryAnnotationOnly.getList().size(), db.from(new CategoryAnnotationOnly()).selectCount());
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        try {
+            db.inTransaction(new Db.Work<Void>() {
+                @Override
+                public Void run(Db db) throws Exception {
+                    db.insertAll(CategoryAnnotationOnly.getList());
+                    db.insertAll(ProductAnnotationOnlyWithForeignKey.getList());
+                    throw new Exception("rollback");
+                }
+            });
+            fail("work should fail");
+        } catch (IciqlException e) {
+            assertEquals("rollback", e.getCause().getMessage());
+        }
+        assertTrue(db.getConnection().getAutoCommit());
+        assertNull(db.getTransaction());
+        assertEquals(0, db.from(new ProductAnnotationOnlyWithForeignKey()).selectCount());
+        assertEquals(0, db.from(new CategoryAnnotationOnly()).selectCount());
+    }
+
+    @Test
+    public void testRollbackCreatedTable() throws Exception {
+        db.dropTable(ProductAnnotationOnlyWithForeignKey.class);
+        db.dropTable(CategoryAnnotationOnly.class);
+        try {
+            db.inTransaction(new Db.Work<Void>() {
+                @Override
+                public Void run(Db db) throws Exception {
+                    db.insertAll(CategoryAnnotationOnly.getList());
+                    throw new IllegalStateException("rollback");
+                }
+            });
+            fail("work should fail");
+        } catch (IllegalStateException e) {
+            assertEquals("rollback", e.getMessage());
+        }
+        // the table is created again if its creation was rolled back
+        db.insertAll(CategoryAnnotationOnly.getList());
+        assertEquals(CategoryAnnotationOnly.getList().size(), db.from(new CategoryAnnotationOnly()).selectCount());
+    }
+
+    @Test
+    public void testTransactionHandle() throws Exception {
+        Transaction t = db.beginTransaction();
+        assertSame(t, db.getTransaction());
+        try {
+            db.beginTransaction();
+            fail("nested transactions are not supported");
+        } catch (IciqlException e) {
+            // expected
+        }
+        db.insertAll(CategoryAnnotationOnly.getList());
+        t.rollback();
+        assertFalse(t.isActive());
+        assertEquals(0, db.from(new CategoryAnnotationOnly()).selectCount());
+
+        t = db.beginTransaction();
+        try {
+            db.insertAll(CategoryAnnotationOnly.getList());
+            t.commit();
+        } finally {
+            // no-op after commit
+            t.close();
+        }
+        assertTrue(db.getConnection().getAutoCommit());
+        assertEquals(CategoryAnnotationOnly.getList().size(), db.from(new CategoryAnnotationOnly()).selectCount());
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        try {
+            db.inTransaction(new Db.Work<Void>() {
+                @Override
+                public Void run(Db db) throws Exception {
+                    final Transaction outer = db.getTransaction();
+                    db.inTransaction(new Db.Work<Void>() {
+                        @Override
+                        public Void run(Db db) throws Exception {
+                            // the inner work joins the outer transaction
+                            assertSame(outer, db.getTransaction());
+                            db.insertAll(CategoryAnnotationOnly.getList());
+                            return null;
+                        }
+                    });
+                    assertTrue(outer.isActive());
+                    throw new IllegalStateException("rollback");
+                }
+            });
+            fail("work should fail");
+        } catch (IllegalStateException e) {
+            assertEquals("rollback", e.getMessage());
+        }
+        assertEquals(0, db.from(new CategoryAnnotationOnly()).selectCount());
+    }
+
+    @Test
+    public void testIsolation() throws Exception {
+        final Connection conn = db.getConnection();
+        int isolation = conn.getTransactionIsolation();
+        db.insertAll(CategoryAnnotationOnly.getList());
+        long count = db.inTransaction(Connection.TRANSACTION_SERIALIZABLE, true, new Db.Work<Long>() {
+            @Override
+            public Long run(Db db) throws Exception {
+                assertEquals(Connection.TRANSACTION_SERIALIZABLE, conn.getTransactionIsolation());
+                return db.from(new CategoryAnnotationOnly()).selectCount();
+            }
+        });
+        assertEquals(CategoryAnnotationOnly.getList().size(), count);
+        assertEquals(isolation, conn.getTransactionIsolation());
+        assertFalse(conn.isReadOnly());
+    }
+
+    @Test
+    public void testJoinSettings() throws Exception {
+        db.inTransaction(Connection.TRANSACTION_SERIALIZABLE, false, new Db.Work<Void>() {
+            @Override
+            public Void run(Db db) throws Exception {
+                final Transaction outer = db.getTransaction();
+                Db.Work<Void> inner = new Db.Work<Void>() {
+                    @Override
+                    public Void run(Db db) throws Exception {
+                        assertSame(outer, db.getTransaction());
+                        return null;
+                    }
+                };
+                // the same or the default settings join the transaction
+                db.inTransaction(inner);
+                db.inTransaction(Transaction.DEFAULT_ISOLATION, false, inner);
+                db.inTransaction(Connection.TRANSACTION_SERIALIZABLE, false, inner);
+
+                // other settings can not join the transaction
+                try {
+                    db.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, inner);
+                    fail("isolation level differs");
+                } catch (IciqlException e) {
+                    assertTrue(outer.isActive());
+                }
+                try {
+                    db.inTransaction(Transaction.DEFAULT_ISOLATION, true, inner);
+                    fail("read-only hint differs");
+                } catch (IciqlException e) {
+                    assertTrue(outer.isActive());
+                }
+                return null;
+            }
+        });
+    }
+}
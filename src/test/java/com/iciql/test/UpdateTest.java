@@ -25,6 +25,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 import static java.sql.Date.valueOf;
 import static org.junit.Assert.*;
 
@@ -176,4 +179,52 @@ public class UpdateTest {
 
     }
 
+    @Test
+    public void testSetNullNumbers() {
+        Product p = new Product();
+        db.from(p).setNull(p.unitsInStock).where(p.productId).is(1).update();
+        db.from(p).setNull(p.unitPrice).where(p.productId).is(1).update();
+
+        // boxed numeric columns are read back as null, not as zero
+        Product revised = db.from(p).where(p.productId).is(1).selectFirst();
+        assertNull(revised.unitsInStock);
+        assertNull(revised.unitPrice);
+        assertEquals(1, revised.productId.intValue());
+    }
+
+    @Test
+    public void testUpdateNullFields() {
+        Product p = new Product();
+        Product chai = db.from(p).where(p.productId).is(1).selectFirst();
+        chai.unitsInStock = null;
+        chai.category = null;
+        db.update(chai);
+
+        // null field values are bound with the SQL type of their column
+        Product revised = db.from(p).where(p.productId).is(1).selectFirst();
+        assertNull(revised.unitsInStock);
+        assertNull(revised.category);
+        assertEquals(chai.productName, revised.productName);
+    }
+
+    @Test
+    public void testRepeatedUpdateAndDelete() {
+        // the generated statements are reused for every order
+        Order o = new Order();
+        List<Order> orders = db.from(o).orderBy(o.orderId).select();
+        for (Order order : orders) {
+            order.total = order.total.add(BigDecimal.ONE);
+            db.update(order);
+        }
+        for (Order order : orders) {
+            Order updated = db.from(o).where(o.customerId).is(order.customerId).and(o.orderId)
+                    .is(order.orderId).selectFirst();
+            assertEquals(0, order.total.compareTo(updated.total));
+        }
+        for (Order order : orders) {
+            db.delete(order);
+        }
+        assertEquals(0, db.from(o).selectCount());
+    }
+
 }